@@ -0,0 +1,63 @@
+package com.example.board.cache;
+
+import com.example.board.model.post.Post;
+import com.example.board.repository.PostEntityRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/*
+게시물 단건 조회용 스냅샷 캐시 (postId → Post, 좋아요 여부 없이)
+
+몇몇 인기 게시물에 조회가 몰리기 때문에 단건 조회를 메모리에서 바로 답한다.
+- Caffeine 의 W-TinyLFU: 새 항목은 자주 쓰인 항목보다 빈도가 높을때만 들어온다.
+  그래서 한번씩만 읽히는 게시물이 쭉 훑고 지나가도(scan) 인기 게시물이 밀려나지 않는다.
+- 좋아요 여부(isLiking)는 사용자마다 다르기 때문에 캐시에 넣지 않고 요청마다 위에 얹는다.
+- 게시물 수정/삭제, 좋아요, 댓글 작성/삭제가 커밋되면 그 postId 를 지운다. 좋아요 수가 DB 에 flush 될때도 지운다.
+- 게시물에 같이 담긴 작성자 정보(팔로워 수 등)는 따로 지우지 않는다. 대신 expire-after-write-seconds 가 지나면 다시 읽는다.
+
+메트릭: cache.gets(result=hit/miss), cache.evictions, cache.size (cache=postSnapshots), board.post.cache.hit.ratio
+ */
+@Component
+public class PostSnapshotCache {
+
+    private static final String CACHE_NAME = "postSnapshots";
+
+    private final PostEntityRepository postEntityRepository;
+    private final UnpinnedLoadingCache<Long, Post> cache;
+
+    public PostSnapshotCache(PostEntityRepository postEntityRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${board.post-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${board.post-cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds) {
+        this.postEntityRepository = postEntityRepository;
+        this.cache = new UnpinnedLoadingCache<>(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds)));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.cache(), CACHE_NAME);
+        Gauge.builder("board.post.cache.hit.ratio", cache.cache(), c -> c.stats().hitRate())
+                .description("Post snapshot cache hit ratio")
+                .register(meterRegistry);
+    }
+
+    //없으면 DB 에서 읽어서 넣는다. 없는 게시물은 캐시하지 않는다. (DB 조회는 캐시 잠금 밖에서, UnpinnedLoadingCache 참고)
+    public Optional<Post> get(Long postId) {
+        return Optional.ofNullable(cache.get(postId, id -> postEntityRepository.findViewById(id).orElse(null)));
+    }
+
+    public void invalidate(Long postId) {
+        cache.invalidate(postId);
+    }
+
+    public void invalidateAll(Collection<Long> postIds) {
+        cache.invalidateAll(postIds);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.board.cache;
+
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.UserEntityRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/*
+인증된 요청마다 하던 "user" SELECT 를 없애기 위한 캐시 (username → UserPrincipal)
+
+- JwtAuthenticationFilter 가 UserService.loadUserByUsername 을 부를때 여기서 먼저 찾는다.
+- 엔티티가 아니라 UserPrincipal(userId, username)만 담는다. 비밀번호 해시 같은 나머지 컬럼은 메모리에 남기지 않는다.
+- 팔로우 수 같은 값은 담지 않으므로 팔로우/언팔로우로는 지우지 않는다. 유저 정보를 수정(updateUser)하면 그 username 을 지운다.
+- 놓친 변경(다른 서버에서 수정 등)이 있어도 expire-after-write-seconds 가 지나면 다시 읽는다.
+
+메트릭: cache.gets(result=hit/miss), cache.evictions, cache.size (cache=principals),
+       board.principal.cache.saved (적중 수 × 평균 DB 로딩 시간, 초)
+ */
+@Component
+public class PrincipalCache {
+
+    private static final String CACHE_NAME = "principals";
+
+    private final UserEntityRepository userEntityRepository;
+    private final UnpinnedLoadingCache<String, UserPrincipal> cache;
+
+    public PrincipalCache(UserEntityRepository userEntityRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${board.principal-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${board.principal-cache.expire-after-write-seconds:30}") long expireAfterWriteSeconds) {
+        this.userEntityRepository = userEntityRepository;
+        this.cache = new UnpinnedLoadingCache<>(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds)));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.cache(), CACHE_NAME);
+        //적중한 요청은 DB 조회를 안 했으니, 미스때 걸린 평균 로딩 시간만큼 아낀것으로 본다.
+        FunctionCounter.builder("board.principal.cache.saved", cache.cache(),
+                        c -> c.stats().hitCount() * c.stats().averageLoadPenalty() / 1_000_000_000.0)
+                .description("Estimated user lookup time saved by principal cache hits")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    //없으면 DB 에서 읽어서 넣는다. 없는 유저는 캐시하지 않는다. (DB 조회는 캐시 잠금 밖에서, UnpinnedLoadingCache 참고)
+    public Optional<UserPrincipal> get(String username) {
+        return Optional.ofNullable(cache.get(username, name -> userEntityRepository.findUserIdByUsername(name)
+                .map(userId -> new UserPrincipal(userId, name))
+                .orElse(null)));
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.board.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+조건부 GET(ETag / If-None-Match → 304) 용 리소스 버전
+
+ETag 를 만들려고 DB 를 읽지 않도록, 쓰기가 커밋될때마다 키별 버전을 올려서 메모리에 들고 있는다.
+- 버전은 전역 카운터에서 받는다. (키마다 따로 세지 않아서 지웠다가 다시 만들어도 예전 값으로 돌아가지 않음)
+- 키는 최근에 바뀐 maximum-size 개만 기억한다. 기억하지 못하는 키의 버전은 floor 이다.
+  키가 밀려날때 floor 를 그 키의 버전까지 올린다. (evictionListener 는 밀어내는 중에 같이 실행됨)
+  → 기억 못하는 키들의 ETag 가 한꺼번에 바뀌어서 304 대신 200 이 나갈 수는 있어도, 바뀐 리소스에 예전 ETag 가 나가지는 않는다.
+- ETag 에 서버 시작 시각을 넣어서 재시작하면 모두 바뀐다. (재시작 전 쓰기를 모르기 때문에)
+- 버전은 커밋된 뒤에 올리고, 응답 내용보다 ETag 를 먼저 만든다. 그래서 ETag 가 내용보다 새것일 수는 없다.
+- 서버가 여러 대면 다른 서버의 쓰기를 모른다. (단일 인스턴스 전제)
+
+메트릭: cache.evictions, cache.size (cache=resourceVersions), 304 응답 수/시간은 http.server.requests(status=304)
+ */
+@Component
+public class ResourceVersions {
+
+    private static final String CACHE_NAME = "resourceVersions";
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong floor = new AtomicLong();
+    private final Cache<String, Long> versions;
+
+    public ResourceVersions(MeterRegistry meterRegistry,
+                            @Value("${board.etag.maximum-tracked-resources:100000}") long maximumSize) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .evictionListener((String key, Long version, RemovalCause cause) ->
+                        floor.accumulateAndGet(version, Math::max))
+                .executor(Runnable::run) //밀어내기(와 floor 올리기)를 bump 한 스레드에서 바로 끝낸다.
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, CACHE_NAME);
+    }
+
+    //쓰기가 커밋된 뒤에 부른다.
+    public void bump(String key) {
+        versions.put(key, clock.incrementAndGet());
+    }
+
+    public long version(String key) {
+        Long version = versions.getIfPresent(key);
+        return version != null ? version : floor.get();
+    }
+
+    public static String userKey(String username) {
+        return "user:" + username;
+    }
+
+    public static String repliesKey(Long postId) {
+        return "replies:" + postId;
+    }
+
+    //강한 ETag: 응답을 결정하는 값들(버전, updatedDateTime, 카운터, 보는 사람 등)을 해시한다.
+    public String etag(Object... parts) {
+        String source = epoch + "|" + Arrays.toString(parts);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
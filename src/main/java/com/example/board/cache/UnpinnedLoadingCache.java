@@ -0,0 +1,76 @@
+package com.example.board.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/*
+DB 에서 읽어서 채우는 Caffeine 캐시 (가상 스레드용)
+
+Caffeine 의 cache.get(key, loader) 는 ConcurrentHashMap.compute 안에서 loader 를 실행한다. compute 는 synchronized 라서
+JDK 21 가상 스레드가 그 안에서 JDBC 를 기다리면 캐리어 스레드까지 같이 묶인다(pinning).
+캐리어 수(코어 수)만큼 미스가 동시에 나면 다른 가상 스레드가 전부 멈추고, 커넥션을 가진 스레드가 캐리어를 못 받아서 Hikari 대기와 엉키면 멈춰버린다.
+
+그래서 DB 조회는 잠금 밖에서 하고 결과만 넣는다.
+- 조회하는 동안 invalidate 가 한번이라도 있었으면 넣은 값을 다시 뺀다. (조회 결과가 커밋 전 값일 수 있어서)
+  넣은 다음에 카운터를 확인하고, invalidate 는 카운터를 먼저 올린 다음 지운다.
+  그래서 확인할때 못 본 invalidate 는 넣은 값을 지우게 된다.
+- 같은 키를 동시에 놓치면 DB 조회가 여러번 나갈 수 있다. (cache.get 은 한번만 조회했었음)
+- 로딩 시간은 직접 StatsCounter 에 기록한다. (stats().averageLoadPenalty() 가 그대로 나오도록)
+ */
+final class UnpinnedLoadingCache<K, V> {
+
+    private final StatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Cache<K, V> cache;
+
+    UnpinnedLoadingCache(Caffeine<Object, Object> builder) {
+        this.cache = builder.recordStats(() -> statsCounter).build();
+    }
+
+    //메트릭 등록용
+    Cache<K, V> cache() {
+        return cache;
+    }
+
+    //없으면 loader 로 읽어서 넣는다. loader 가 null 을 주면(없는 데이터) 캐시하지 않는다.
+    V get(K key, Function<K, V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seenInvalidations = invalidations.get();
+        long startedAt = System.nanoTime();
+        V loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException e) {
+            statsCounter.recordLoadFailure(System.nanoTime() - startedAt);
+            throw e;
+        }
+        if (loaded == null) {
+            statsCounter.recordLoadFailure(System.nanoTime() - startedAt); //cache.get 과 같게 없는 값은 실패로 센다.
+            return null;
+        }
+        statsCounter.recordLoadSuccess(System.nanoTime() - startedAt);
+        cache.put(key, loaded);
+        if (invalidations.get() != seenInvalidations) {
+            cache.asMap().remove(key, loaded);
+        }
+        return loaded;
+    }
+
+    void invalidate(K key) {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    void invalidateAll(Iterable<? extends K> keys) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(keys);
+    }
+}
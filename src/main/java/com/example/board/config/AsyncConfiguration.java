@@ -0,0 +1,92 @@
+package com.example.board.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfiguration {
+
+    //타임라인 fan-out 은 요청 스레드(톰캣)가 아니라 이 스레드풀에서 처리한다.
+    //큐가 가득 차면 바로 거절(AbortPolicy)한다. FeedService 가 거절된 작업을 pending_fanout 테이블에 남겨 두고 나중에 다시 넣기 때문에
+    //요청 스레드는 fan-out 을 대신 돌리거나 자리가 날때까지 기다리지 않는다.
+    //가상 스레드 모드(spring.threads.virtual.enabled=true, JDK 21 이상)에서는 작업마다 가상 스레드를 만든다.
+    //동시에 도는 fan-out 은 똑같이 pool-size 개까지이고, 넘치면 큐 없이 바로 거절한다.
+    @Bean
+    public AsyncTaskExecutor feedFanoutExecutor(
+            Environment environment,
+            @Value("${board.feed.fanout-pool-size:2}") int poolSize,
+            @Value("${board.feed.fanout-queue-capacity:10000}") int queueCapacity) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("feed-fanout-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            executor.setRejectTasksWhenLimitReached(true);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("feed-fanout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    //프로필 화면의 게시물/팔로워/팔로잉/댓글 조회를 동시에 돌리는 스레드풀.
+    //조회마다 트랜잭션(커넥션 하나)을 잡기 때문에 스레드 수가 곧 이 풀이 쓰는 커넥션 수다.
+    //그래서 스레드 수는 히카리 maximum-pool-size 의 connection-share 비율로 정한다. (기본 10 × 0.3 = 3개, 나머지는 다른 요청 몫)
+    //스레드가 모자라면 나머지 조회는 큐에서 기다리고, 마감을 넘기면 그 부분만 빠진다.
+    //큐가 가득 차면 바로 거절(AbortPolicy)한다. 요청 스레드에서 직접 실행하면 조회 시간이 더해져서 마감 시각을 넘기기 때문에
+    //ProfileService 는 거절된 부분을 빼고 응답한다.
+    //가상 스레드 모드에서는 작업마다 가상 스레드를 만들고, 동시에 도는 조회가 위 스레드 수만큼이면 기다리지 않고 거절한다.
+    @Bean
+    public AsyncTaskExecutor profileExecutor(
+            Environment environment,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${board.profile.connection-share:0.3}") double connectionShare,
+            @Value("${board.profile.queue-capacity:200}") int queueCapacity) {
+        int poolSize = Math.max(1, (int) (maximumPoolSize * connectionShare));
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("profile-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            executor.setRejectTasksWhenLimitReached(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("profile-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    //BCrypt 해시/검증 전용 스레드풀. 로그인이 몰려도 톰캣 스레드가 전부 해시 계산에 묶이지 않게 한다.
+    //큐가 가득 차면 바로 거절(AbortPolicy)해서 호출한 쪽이 503 으로 빨리 응답한다.
+    //CPU 만 쓰는 작업이라 가상 스레드 모드에서도 코어 수만큼의 플랫폼 스레드로 둔다.
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${board.password.hash-pool-size:0}") int poolSize,
+            @Value("${board.password.hash-queue-capacity:100}") int queueCapacity) {
+        int size = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors(); //0 이면 코어 수
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -2,13 +2,14 @@ package com.example.board.config;
 
 
 import com.example.board.exception.jwt.JwtTokenNotFoundException;
+import com.example.board.model.user.UserPrincipal;
 import com.example.board.service.JwtService;
 import com.example.board.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
@@ -22,13 +23,24 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
 
     private final UserService userService;
 
+    //true 면 토큰 클레임(uid, sub)만으로 principal 을 만들고 DB/캐시를 보지 않는다.
+    //대신 탈퇴한 계정의 토큰도 만료될때까지는 통과한다.
+    private final boolean stateless;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserService userService,
+                                   @Value("${board.auth.stateless:false}") boolean stateless) {
+        this.jwtService = jwtService;
+        this.userService = userService;
+        this.stateless = stateless;
+    }
+
 
     @Override
     protected void doFilterInternal(
@@ -50,8 +62,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             //→ JWT 검증을 해라.
             String accessToken = authorization.substring(BEARER_PREFIX.length()); //"Bearer " 접두사를 떼고 순수 JWT 문자열만 가져와요.
-            String username = jwtService.getUsername(accessToken); //보통 sub(subject) 클레임에서 username을 꺼냅니다.
-            UserDetails userDetails = userService.loadUserByUsername(username); //DB나 사용자 저장소에서 해당 사용자를 불러와 권한(roles/authorities)까지 확보.
+            UserPrincipal principal = jwtService.getPrincipal(accessToken); //sub(subject) 클레임의 username, uid 클레임의 userId
+            //stateless 모드가 아니거나 uid 가 없는 옛날 토큰이면 PrincipalCache(없으면 DB)에서 사용자가 아직 있는지 확인.
+            UserDetails userDetails = stateless && principal.userId() != null
+                    ? principal
+                    : userService.loadUserByUsername(principal.username());
 
             UsernamePasswordAuthenticationToken authenticationToken //스프링 시큐리티가 이해하는 Authentication 구현체를 생성.
                     = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,10 @@
+package com.example.board.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//@Scheduled 로 주기적으로 실행되는 작업(좋아요 수 flush 등)을 켠다.
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,48 @@
+package com.example.board.controller;
+
+import com.example.board.model.imports.ImportResult;
+import com.example.board.model.index.IndexConsistency;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.service.AdminService;
+import com.example.board.service.PostImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final PostImportService postImportService;
+    private final AdminService adminService;
+
+    //게시물/댓글 대량 가져오기 (application/x-ndjson, 한 줄에 게시물 하나)
+    //본문을 InputStream 으로 받아서 읽으면서 바로 저장한다.
+    @PostMapping(value = "/imports/posts", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportResult> importPosts(InputStream inputStream, Authentication authentication) throws IOException {
+        ImportResult importResult = postImportService.importPosts(inputStream, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(importResult);
+    }
+
+    //좋아요 메모리 인덱스와 DB 비교
+    @GetMapping("/indexes/liked-posts")
+    public ResponseEntity<IndexConsistency> checkLikedPostIndex(Authentication authentication) {
+        IndexConsistency indexConsistency = adminService.checkLikedPostIndex((UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(indexConsistency);
+    }
+
+    //팔로우 그래프 메모리 인덱스와 DB 비교
+    @GetMapping("/indexes/follow-graph")
+    public ResponseEntity<IndexConsistency> checkFollowGraphIndex(Authentication authentication) {
+        IndexConsistency indexConsistency = adminService.checkFollowGraphIndex((UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(indexConsistency);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.board.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+//ETag 가 붙는 GET 응답 (If-None-Match 가 맞으면 본문 없이 304)
+final class ConditionalGet {
+
+    //클라이언트는 저장해 두고(private, 공유 캐시는 안 됨) 쓸때마다 If-None-Match 로 확인한다. (no-cache)
+    //지정하지 않으면 Spring Security 기본값(no-store)이 붙어서 클라이언트가 응답을 저장하지 않는다.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body);
+    }
+}
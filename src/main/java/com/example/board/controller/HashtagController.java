@@ -0,0 +1,39 @@
+package com.example.board.controller;
+
+import com.example.board.model.hashtag.TrendingHashtag;
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.Post;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.service.HashtagService;
+import com.example.board.service.PostService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/hashtags")
+@RequiredArgsConstructor
+public class HashtagController {
+
+    private final HashtagService hashtagService;
+    private final PostService postService;
+
+    //최근 구간에 많이 쓰인 태그 (기본 10개)
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingHashtag>> getTrendingHashtags(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(hashtagService.getTrendingHashtags(limit));
+    }
+
+    //태그가 달린 게시물 (최신순, next: 이전 응답에 있던 커서)
+    @GetMapping("/{tag}/posts")
+    public ResponseEntity<CursorPage<Post>> getPostsByHashtag(@PathVariable String tag,
+                                                              @RequestParam(required = false) String next,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              Authentication authentication) {
+        var posts = postService.getPostsByHashtag(tag, next, limit, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(posts);
+    }
+}
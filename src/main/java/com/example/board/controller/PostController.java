@@ -1,10 +1,12 @@
 package com.example.board.controller;
 
-import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.LikeResult;
 import com.example.board.model.post.Post;
 import com.example.board.model.post.PostPatchRequestBody;
 import com.example.board.model.post.PostPostRequestBody;
 import com.example.board.model.user.LikedUser;
+import com.example.board.model.user.UserPrincipal;
 import com.example.board.service.PostService;
 import com.example.board.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,50 +27,90 @@ public class PostController {
     private final PostService postService;
     private final UserService userService;
 
+    //next: 이전 응답에 있던 커서 (없으면 첫 페이지), limit: 한 페이지 크기
     @GetMapping()
-    public ResponseEntity<List<Post>> getPosts(Authentication authentication) {
-        var posts = postService.getPosts((UserEntity) authentication.getPrincipal());
+    public ResponseEntity<CursorPage<Post>> getPosts(@RequestParam(required = false) String next,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     Authentication authentication) {
+        var posts = postService.getPosts(next, limit, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(posts);
     }
 
+    //내가 팔로우한 유저들의 게시물 (홈 타임라인)
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<Post>> getFeed(@RequestParam(required = false) String next,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    Authentication authentication) {
+        var posts = postService.getFeed(next, limit, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(posts);
+    }
+
+    @GetMapping("/search") //본문 검색 (BM25 점수 순으로 limit 개)
+    public ResponseEntity<List<Post>> searchPosts(@RequestParam String q,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  Authentication authentication) {
+        List<Post> posts = postService.searchPosts(q, limit, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(posts);
+    }
+
+    //If-None-Match 가 ETag 와 같으면 본문을 직렬화하지 않고 304
     @GetMapping("/{postId}")
     public ResponseEntity<Post> getPostByPostId(@PathVariable Long postId,
-                                                Authentication authentication) {
-        Post post = postService.getPostByPostId(postId, (UserEntity) authentication.getPrincipal());
-        return ResponseEntity.ok(post);
+                                                Authentication authentication,
+                                                WebRequest webRequest) {
+        Post post = postService.getPostByPostId(postId, (UserPrincipal) authentication.getPrincipal());
+        String etag = postService.getPostETag(post);
+        if (webRequest.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+        return ConditionalGet.ok(etag, post);
     }
 
     @GetMapping("/{postId}/liked-users")  //게시물에 좋아요 누른 유저들
     public ResponseEntity<List<LikedUser>> getLikedUsersByPostId(@PathVariable Long postId,
                                                                  Authentication authentication) {
-        List<LikedUser> likedUsers = userService.getLikedUsersByPostId(postId, (UserEntity) authentication.getPrincipal());
+        List<LikedUser> likedUsers = userService.getLikedUsersByPostId(postId, (UserPrincipal) authentication.getPrincipal());
 
         return ResponseEntity.ok(likedUsers);
     }
 
     @PostMapping
     public ResponseEntity<Post> createPost(@RequestBody PostPostRequestBody postPostRequestBody, Authentication authentication) {
-        var post = postService.createPost(postPostRequestBody, (UserEntity) authentication.getPrincipal());
+        var post = postService.createPost(postPostRequestBody, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(post);
     }
 
     @PatchMapping("/{postId}")
     public ResponseEntity<Post> updatePost(@PathVariable Long postId, @RequestBody PostPatchRequestBody postPatchRequestBody, Authentication authentication) {
-        Post post = postService.updatePost(postId, postPatchRequestBody, (UserEntity) authentication.getPrincipal());
+        Post post = postService.updatePost(postId, postPatchRequestBody, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(post);
     }
 
     @DeleteMapping("/{postId}")
     public ResponseEntity<Void> deletePost(@PathVariable Long postId, Authentication authentication) {
-        postService.deletePost(postId, (UserEntity) authentication.getPrincipal());
+        postService.deletePost(postId, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.noContent().build();
     }
 
 
-    //좋아요
+    //좋아요 (누를때마다 좋아요 <-> 취소)
     @PostMapping("/{postId}/likes")
     public ResponseEntity<Post> toggleLike(@PathVariable Long postId, Authentication authentication) {
-        Post post = postService.toggleLike(postId, (UserEntity) authentication.getPrincipal());
+        Post post = postService.toggleLike(postId, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(post);
     }
+
+    //좋아요 (여러번 보내도 결과가 같음)
+    @PutMapping("/{postId}/likes")
+    public ResponseEntity<LikeResult> like(@PathVariable Long postId, Authentication authentication) {
+        LikeResult likeResult = postService.like(postId, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(likeResult);
+    }
+
+    //좋아요 취소 (여러번 보내도 결과가 같음)
+    @DeleteMapping("/{postId}/likes")
+    public ResponseEntity<LikeResult> unlike(@PathVariable Long postId, Authentication authentication) {
+        LikeResult likeResult = postService.unlike(postId, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(likeResult);
+    }
 }
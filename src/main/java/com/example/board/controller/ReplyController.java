@@ -1,10 +1,12 @@
 package com.example.board.controller;
 
 import com.example.board.model.entity.ReplyEntity;
-import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.CursorPage;
 import com.example.board.model.reply.Reply;
 import com.example.board.model.reply.ReplyPatchRequestBody;
 import com.example.board.model.reply.ReplyRequestBody;
+import com.example.board.model.reply.ReplyView;
+import com.example.board.model.user.UserPrincipal;
 import com.example.board.service.PostService;
 import com.example.board.service.ReplyService;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,12 +26,21 @@ public class ReplyController {
 
     private final ReplyService replyService;
 
+    //작성순으로 limit 개씩 (next 커서로 다음 페이지)
+    //If-None-Match 가 ETag 와 같으면 댓글을 조회하지 않고 304
     @GetMapping()
-    public ResponseEntity<List<Reply>> getReplies(@PathVariable Long postId) {
+    public ResponseEntity<CursorPage<ReplyView>> getReplies(@PathVariable Long postId,
+                                                           @RequestParam(required = false) String next,
+                                                           @RequestParam(required = false) Integer limit,
+                                                           WebRequest webRequest) {
+        String etag = replyService.getRepliesETag(postId);
+        if (webRequest.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag);
+        }
 
-        List<Reply> replies = replyService.getRepliesByPostId(postId);
+        CursorPage<ReplyView> replies = replyService.getRepliesByPostId(postId, next, limit);
 
-        return ResponseEntity.ok(replies);
+        return ConditionalGet.ok(etag, replies);
 
     }
 
@@ -38,7 +50,7 @@ public class ReplyController {
             @RequestBody ReplyRequestBody replyPostRequestBody,
             Authentication authentication) {
 
-        Reply reply = replyService.createReply(postId, replyPostRequestBody, (UserEntity) authentication.getPrincipal());
+        Reply reply = replyService.createReply(postId, replyPostRequestBody, (UserPrincipal) authentication.getPrincipal());
 
         return ResponseEntity.ok(reply);
     }
@@ -50,7 +62,7 @@ public class ReplyController {
             @RequestBody ReplyPatchRequestBody replyPatchRequestBody,
             Authentication authentication
     ) {
-        Reply reply= replyService.updateReply(postId, replyId, replyPatchRequestBody, (UserEntity)authentication.getPrincipal());
+        Reply reply= replyService.updateReply(postId, replyId, replyPatchRequestBody, (UserPrincipal) authentication.getPrincipal());
 
         return ResponseEntity.ok(reply);
     }
@@ -61,7 +73,7 @@ public class ReplyController {
             @PathVariable Long replyId,
             Authentication authentication
     ) {
-        replyService.deleteReply(postId, replyId,(UserEntity) authentication.getPrincipal());
+        replyService.deleteReply(postId, replyId,(UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.noContent().build();
     }
 }
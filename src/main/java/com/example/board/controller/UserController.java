@@ -1,10 +1,11 @@
 package com.example.board.controller;
 
-import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.CursorPage;
 import com.example.board.model.post.Post;
 import com.example.board.model.reply.Reply;
 import com.example.board.model.user.*;
 import com.example.board.service.PostService;
+import com.example.board.service.ProfileService;
 import com.example.board.service.ReplyService;
 import com.example.board.service.UserService;
 import jakarta.validation.Valid;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -32,52 +34,72 @@ public class UserController {
     private final UserService userService;
     private final PostService postService;
     private final ReplyService replyService;
+    private final ProfileService profileService;
 
-    //유저 전체조회
+    //유저 검색 (query 가 없으면 최근 가입한 유저), 순위대로 limit 명까지
     @GetMapping()
-    public ResponseEntity<List<User>> getUsers(@RequestParam(required = false) String query, Authentication authentication) {
-        List<User> userList = userService.getUsers(query, (UserEntity) authentication.getPrincipal());
+    public ResponseEntity<List<User>> getUsers(@RequestParam(required = false) String query,
+                                               @RequestParam(required = false) Integer limit,
+                                               Authentication authentication) {
+        List<User> userList = userService.getUsers(query, limit, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(userList);
     }
 
     //유저 단건조회
+    //If-None-Match 가 ETag 와 같으면 유저를 조회하지 않고 304
     @GetMapping("/{username}")
-    public ResponseEntity<User> getUser(@PathVariable String username, Authentication authentication) {
-        User user = userService.getUser(username, (UserEntity) authentication.getPrincipal());
-        return ResponseEntity.ok(user);
+    public ResponseEntity<User> getUser(@PathVariable String username, Authentication authentication, WebRequest webRequest) {
+        UserPrincipal currentUser = (UserPrincipal) authentication.getPrincipal();
+        String etag = userService.getUserETag(username, currentUser);
+        if (webRequest.checkNotModified(etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+        User user = userService.getUser(username, currentUser);
+        return ConditionalGet.ok(etag, user);
+    }
+
+    //프로필 화면: 유저 + 게시물 첫 페이지 + 팔로워/팔로잉 미리보기 + 최근 댓글을 한번에
+    //시간 안에 못 가져온 부분은 빠지고 unavailable 에 이름이 담긴다.
+    @GetMapping("/{username}/profile")
+    public ResponseEntity<UserProfile> getProfile(@PathVariable String username, Authentication authentication) {
+        UserProfile profile = profileService.getProfile(username, (UserPrincipal) authentication.getPrincipal());
+        return ResponseEntity.ok(profile);
     }
 
     //특정유저의 게시물
     @GetMapping("/{username}/posts")
-    public ResponseEntity<List<Post>> getPostByUsername(@PathVariable String username, Authentication authentication) {
-        List<Post> posts = postService.getPostByUsername(username, (UserEntity) authentication.getPrincipal());
+    public ResponseEntity<CursorPage<Post>> getPostByUsername(@PathVariable String username,
+                                                              @RequestParam(required = false) String next,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              Authentication authentication) {
+        CursorPage<Post> posts = postService.getPostByUsername(username, next, limit, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(posts);
     }
 
     //팔로우
     @PostMapping("/{username}/follows")
     public ResponseEntity<User> follow(@PathVariable String username, Authentication authentication) {
-        User user = userService.follow(username, (UserEntity) authentication.getPrincipal());
+        User user = userService.follow(username, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(user);
     }
 
     //팔로우 취소
     @DeleteMapping("/{username}/follows")
     public ResponseEntity<User> unFollow(@PathVariable String username, Authentication authentication) {
-        User user = userService.unFollow(username, (UserEntity) authentication.getPrincipal());
+        User user = userService.unFollow(username, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(user);
     }
 
     //
     @GetMapping("/{username}/followers") //누군가의 팔로워 조회 목록
     public ResponseEntity<List<Follower>> getFollowersByUser(@PathVariable String username, Authentication authentication) {
-        List<Follower> followers = userService.getFollowersByUsername(username, (UserEntity) authentication.getPrincipal());
+        List<Follower> followers = userService.getFollowersByUsername(username, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(followers);
     }
 
     @GetMapping("/{username}/followings") //누군가의 팔로잉 조회 목록
     public ResponseEntity<List<User>> getFollowingsByUser(@PathVariable String username, Authentication authentication) {
-        List<User> followings = userService.getFollowingsByUser(username, (UserEntity) authentication.getPrincipal());
+        List<User> followings = userService.getFollowingsByUser(username, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(followings);
     }
 
@@ -88,9 +110,12 @@ public class UserController {
         return ResponseEntity.ok(replies);
     }
 
-    @GetMapping("/{username}/liked-users") //누군가의 팔로잉 조회 목록
-    public ResponseEntity<List<LikedUser>> getLikedUsersByUser(@PathVariable String username, Authentication authentication) {
-        List<LikedUser> likedUsers  =userService.getLikedUsersByUser(username, (UserEntity) authentication.getPrincipal());
+    @GetMapping("/{username}/liked-users") //username 의 게시물에 좋아요 누른 유저들 (좋아요 누른 시간 최신순, next 커서로 다음 페이지)
+    public ResponseEntity<CursorPage<LikedUser>> getLikedUsersByUser(@PathVariable String username,
+                                                                     @RequestParam(required = false) String next,
+                                                                     @RequestParam(required = false) Integer limit,
+                                                                     Authentication authentication) {
+        CursorPage<LikedUser> likedUsers = userService.getLikedUsersByUser(username, next, limit, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(likedUsers);
     }
 
@@ -99,7 +124,7 @@ public class UserController {
             @PathVariable String username,
             @RequestBody UserPatchRequestBody requestBody,
             Authentication authentication) {
-        User user = userService.updateUser(username, requestBody, (UserEntity) authentication.getPrincipal());
+        User user = userService.updateUser(username, requestBody, (UserPrincipal) authentication.getPrincipal());
         return ResponseEntity.ok(user);
     }
 
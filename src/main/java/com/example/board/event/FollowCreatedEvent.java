@@ -0,0 +1,6 @@
+package com.example.board.event;
+
+//팔로우 하면 팔로잉한 유저의 최근 게시물을 내 타임라인에 채워 넣는다. (backfill)
+//팔로워가 많은 유저(pull 대상)는 채워 넣지 않기 때문에 팔로워 수도 같이 넘긴다.
+public record FollowCreatedEvent(Long followerId, Long followingId, Long followingFollowersCount) {
+}
@@ -0,0 +1,13 @@
+package com.example.board.event;
+
+//언팔로우 하면 내 타임라인에서 해당 유저의 게시물을 지운다. (prune)
+//팔로워 수가 pull 기준 아래로 내려갔는지 알 수 있게 이 언팔로우로 줄어든 팔로워 수도 같이 넘긴다. (UPDATE ... RETURNING 값)
+public record FollowDeletedEvent(Long followerId, Long followingId, long followingFollowersCount) {
+
+    //이 언팔로우 직전에는 threshold 이상이었고 지금은 미만인지
+    //카운터는 언팔로우마다 행 잠금 안에서 1 씩 줄어들기 때문에 직전 값은 +1 이고, 동시 언팔로우 중 하나만 참이 된다.
+    public boolean droppedBelow(long threshold) {
+        long before = followingFollowersCount + 1;
+        return before >= threshold && followingFollowersCount < threshold;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.board.event;
+
+import java.time.ZonedDateTime;
+
+//게시물 작성이 커밋된 뒤 팔로워 타임라인에 fan-out 하기 위한 이벤트
+//authorFollowersCount 로 push(fan-out) 할지 pull(읽을때 합치기) 할지 정한다.
+public record PostCreatedEvent(Long postId, Long authorId, Long authorFollowersCount, ZonedDateTime createdDateTime) {
+}
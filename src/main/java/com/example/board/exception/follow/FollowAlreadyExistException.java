@@ -2,7 +2,6 @@ package com.example.board.exception.follow;
 
 
 import com.example.board.exception.ClientErrorException;
-import com.example.board.model.entity.UserEntity;
 import org.springframework.http.HttpStatus;
 
 public class FollowAlreadyExistException extends ClientErrorException {
@@ -12,7 +11,7 @@ public class FollowAlreadyExistException extends ClientErrorException {
     }
 
     //예외가 발생했을때 구체적인 포스트 아이디를 알고 있다면 이런식으로 사용할 수 있다.
-    public FollowAlreadyExistException(UserEntity follower, UserEntity following) {
-        super(HttpStatus.CONFLICT, "Follow with follower" + follower.getUsername() + " and following " + following.getUsername() + " already exists.");
+    public FollowAlreadyExistException(String followerUsername, String followingUsername) {
+        super(HttpStatus.CONFLICT, "Follow with follower" + followerUsername + " and following " + followingUsername + " already exists.");
     }
 }
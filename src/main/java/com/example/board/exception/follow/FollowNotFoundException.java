@@ -1,7 +1,6 @@
 package com.example.board.exception.follow;
 
 import com.example.board.exception.ClientErrorException;
-import com.example.board.model.entity.UserEntity;
 import org.springframework.http.HttpStatus;
 
 public class FollowNotFoundException extends ClientErrorException {
@@ -12,8 +11,8 @@ public class FollowNotFoundException extends ClientErrorException {
 
 
 
-    public FollowNotFoundException(UserEntity follower, UserEntity following) {
-        super(HttpStatus.NOT_FOUND, "Follow with follower" + follower.getUsername() + " and following " + following.getUsername() + " not found.");
+    public FollowNotFoundException(String followerUsername, String followingUsername) {
+        super(HttpStatus.NOT_FOUND, "Follow with follower" + followerUsername + " and following " + followingUsername + " not found.");
 
     }
 }
@@ -0,0 +1,12 @@
+package com.example.board.exception.imports;
+
+import com.example.board.exception.ClientErrorException;
+import org.springframework.http.HttpStatus;
+
+public class InvalidImportLineException extends ClientErrorException {
+
+    //이 줄 앞의 청크들은 이미 커밋되어 있다.
+    public InvalidImportLineException(long lineNumber, Long postsImported) {
+        super(HttpStatus.BAD_REQUEST, "Invalid import line " + lineNumber + " (" + postsImported + " posts already imported).");
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.board.exception.user;
+
+import com.example.board.exception.ClientErrorException;
+import org.springframework.http.HttpStatus;
+
+//비밀번호 해시 스레드풀 큐가 가득 찼을때 (잠시 후 다시 시도)
+public class PasswordHashingUnavailableException extends ClientErrorException {
+
+    public PasswordHashingUnavailableException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many login or sign-up requests. Please try again later.");
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.board.index;
+
+import com.example.board.model.index.IndexConsistency;
+import com.example.board.model.user.FollowKey;
+import com.example.board.repository.FollowEntityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*
+팔로우 그래프 메모리 인덱스
+
+사용자마다 팔로잉/팔로워 아이디를 정렬된 long[] (SortedLongArray) 로 가진다.
+목록 API 의 "내가 이 사람을 팔로우하는지" 를 follow 테이블 조회 없이 이진 탐색 O(log n) 으로 답한다.
+- 서버가 뜰때(ApplicationReadyEvent) follow 테이블을 (follower, following) 순서로 스트리밍해서 만든다.
+  이 순서면 두 방향 모두 정렬된 채로 들어와서 배열 뒤에 붙이기만 한다.
+- follow/unFollow 가 커밋되면 UserService 가 follow/unfollow 를 호출해서 바로 반영한다.
+- 만드는 중에 바뀐 사용자는 기록해 두었다가 다 만든 뒤 그 사용자만 DB 에서 다시 읽는다.
+- 다 만들기 전(isReady() == false)에는 UserService 가 DB 로 조회한다.
+- 서버가 여러 대면 다른 서버에서 한 팔로우는 반영되지 않는다. (단일 인스턴스 전제)
+
+메모리: 팔로우 1건당 16바이트 (양방향 8바이트씩) + 배열 여유분(최대 50%) + 팔로우가 있는 사용자당 약 150바이트
+→ 팔로우 100만 건이면 약 16~24MB + 사용자 오버헤드
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FollowGraphIndex {
+
+    private static final long PER_USER_ENTRY_BYTES = 80;
+
+    private final FollowEntityRepository followEntityRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, SortedLongArray> followingsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SortedLongArray> followersByUser = new ConcurrentHashMap<>();
+    private final Set<Long> usersChangedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.currentTimeMillis();
+        building = true;
+        ready = false;
+        followingsByUser.clear();
+        followersByUser.clear();
+
+        AtomicLong follows = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<FollowKey> followKeys = followEntityRepository.streamAllFollowKeys()) {
+                followKeys.forEach(followKey -> {
+                    add(followingsByUser, followKey.followerId(), followKey.followingId());
+                    add(followersByUser, followKey.followingId(), followKey.followerId());
+                    follows.incrementAndGet();
+                });
+            }
+        });
+
+        //스트리밍하는 동안 팔로우/언팔로우한 사용자는 스냅샷과 다를 수 있어서 그 사용자만 다시 읽는다.
+        while (!usersChangedWhileBuilding.isEmpty()) {
+            Iterator<Long> userIds = usersChangedWhileBuilding.iterator();
+            Long userId = userIds.next();
+            userIds.remove();
+            reload(userId);
+        }
+        ready = true;
+        building = false;
+
+        log.info("Follow graph index built: {} follows, {} users, ~{} bytes in {} ms",
+                follows.get(), followingsByUser.size(), estimatedBytes(), System.currentTimeMillis() - startedAt);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isFollowing(Long followerId, Long followingId) {
+        SortedLongArray followings = followingsByUser.get(followerId);
+        if (followings == null) {
+            return false;
+        }
+        synchronized (followings) {
+            return followings.contains(followingId);
+        }
+    }
+
+    public void follow(Long followerId, Long followingId) {
+        markChanged(followerId, followingId);
+        add(followingsByUser, followerId, followingId);
+        add(followersByUser, followingId, followerId);
+    }
+
+    public void unfollow(Long followerId, Long followingId) {
+        markChanged(followerId, followingId);
+        remove(followingsByUser, followerId, followingId);
+        remove(followersByUser, followingId, followerId);
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes(followingsByUser) + estimatedBytes(followersByUser);
+    }
+
+    //DB 와 비교: follow 테이블을 다시 스트리밍해서 인덱스에 없는 건수와 전체 건수를 센다. (팔로잉 방향 기준)
+    public IndexConsistency checkConsistency() {
+        AtomicLong databaseFollows = new AtomicLong();
+        AtomicLong missing = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<FollowKey> followKeys = followEntityRepository.streamAllFollowKeys()) {
+                followKeys.forEach(followKey -> {
+                    databaseFollows.incrementAndGet();
+                    if (!isFollowing(followKey.followerId(), followKey.followingId())) {
+                        missing.incrementAndGet();
+                    }
+                });
+            }
+        });
+
+        long indexedFollows = 0;
+        for (SortedLongArray followings : followingsByUser.values()) {
+            synchronized (followings) {
+                indexedFollows += followings.size();
+            }
+        }
+        long extra = indexedFollows - (databaseFollows.get() - missing.get());
+        boolean consistent = missing.get() == 0 && extra == 0;
+        if (!consistent) {
+            log.warn("Follow graph index differs from database: {} missing, {} extra", missing.get(), extra);
+        }
+        return new IndexConsistency("follow-graph", databaseFollows.get(), indexedFollows, missing.get(), extra, estimatedBytes(), consistent);
+    }
+
+    private void reload(Long userId) {
+        replace(followingsByUser, userId, followEntityRepository.findFollowingIdsByFollowerId(userId));
+        replace(followersByUser, userId, followEntityRepository.findFollowerIdsByFollowingId(userId));
+    }
+
+    private void markChanged(Long followerId, Long followingId) {
+        if (building) {
+            usersChangedWhileBuilding.add(followerId);
+            usersChangedWhileBuilding.add(followingId);
+        }
+    }
+
+    //compute 안에서 추가/삭제해야 빈 배열을 지우는 것과 겹치지 않는다.
+    private static void add(ConcurrentHashMap<Long, SortedLongArray> adjacency, Long userId, Long otherUserId) {
+        adjacency.compute(userId, (id, ids) -> {
+            SortedLongArray sortedIds = ids == null ? new SortedLongArray() : ids;
+            synchronized (sortedIds) {
+                sortedIds.add(otherUserId);
+            }
+            return sortedIds;
+        });
+    }
+
+    private static void remove(ConcurrentHashMap<Long, SortedLongArray> adjacency, Long userId, Long otherUserId) {
+        adjacency.computeIfPresent(userId, (id, sortedIds) -> {
+            synchronized (sortedIds) {
+                sortedIds.remove(otherUserId);
+                return sortedIds.size() == 0 ? null : sortedIds;
+            }
+        });
+    }
+
+    private static void replace(ConcurrentHashMap<Long, SortedLongArray> adjacency, Long userId, Iterable<Long> otherUserIds) {
+        SortedLongArray sortedIds = new SortedLongArray();
+        otherUserIds.forEach(sortedIds::add);
+        if (sortedIds.size() == 0) {
+            adjacency.remove(userId);
+        } else {
+            adjacency.put(userId, sortedIds);
+        }
+    }
+
+    private static long estimatedBytes(Map<Long, SortedLongArray> adjacency) {
+        long bytes = 0;
+        for (SortedLongArray sortedIds : adjacency.values()) {
+            synchronized (sortedIds) {
+                bytes += PER_USER_ENTRY_BYTES + sortedIds.estimatedBytes();
+            }
+        }
+        return bytes;
+    }
+}
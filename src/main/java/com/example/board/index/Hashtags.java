@@ -0,0 +1,78 @@
+package com.example.board.index;
+
+import com.example.board.model.entity.PostHashtagEntity;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/*
+게시물 본문에서 #해시태그를 뽑는다.
+
+- # 바로 뒤에 이어지는 글자/숫자/_ 가 태그다. 소문자로 바꾸고 # 은 뺀다. ("#Spring_Boot" → "spring_boot")
+- # 앞이 글자/숫자/_/&/# 이면 태그가 아니다. ("a#b", "&#39;", "##")
+- 숫자만 있는 태그("#1"), MAX_TAG_LENGTH 를 넘는 태그는 버린다.
+- 게시물 하나에서 MAX_TAGS_PER_POST 개까지만, 처음 나온 순서대로 (중복 제거)
+ */
+public final class Hashtags {
+
+    public static final int MAX_TAGS_PER_POST = 20;
+
+    private Hashtags() {
+    }
+
+    public static Set<String> extract(String body) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (body == null) {
+            return tags;
+        }
+        int i = 0;
+        while (i < body.length() && tags.size() < MAX_TAGS_PER_POST) {
+            if (body.charAt(i) != '#' || (i > 0 && !isBoundary(body.charAt(i - 1)))) {
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < body.length() && isTagChar(body.charAt(end))) {
+                end++;
+            }
+            String tag = normalize(body.substring(i + 1, end));
+            if (tag != null) {
+                tags.add(tag);
+            }
+            i = end;
+        }
+        return tags;
+    }
+
+    //URL 로 받은 태그도 같은 규칙으로 맞춘다. (# 이 붙어 있으면 뗀다) 태그가 될 수 없으면 null
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String stripped = tag.strip();
+        if (stripped.startsWith("#")) {
+            stripped = stripped.substring(1);
+        }
+        if (stripped.isEmpty() || stripped.length() > PostHashtagEntity.MAX_TAG_LENGTH) {
+            return null;
+        }
+        boolean hasLetter = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (!isTagChar(c)) {
+                return null;
+            }
+            hasLetter |= !Character.isDigit(c);
+        }
+        return hasLetter ? stripped.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isBoundary(char c) {
+        return !isTagChar(c) && c != '&' && c != '#';
+    }
+}
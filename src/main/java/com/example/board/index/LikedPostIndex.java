@@ -0,0 +1,193 @@
+package com.example.board.index;
+
+import com.example.board.model.index.IndexConsistency;
+import com.example.board.model.post.LikeKey;
+import com.example.board.repository.LikeEntityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*
+사용자별 "좋아요 누른 게시물" 메모리 인덱스 (userId → LongBitmap)
+
+게시물 목록의 isLiking 을 like 테이블 조회 없이 메모리에서 바로 답한다.
+- 서버가 뜰때(ApplicationReadyEvent) like 테이블을 (userid, postid) 순서로 스트리밍해서 만든다.
+- 좋아요/취소가 커밋되면 PostService 가 like/unlike 를 호출해서 바로 반영한다.
+- 만드는 중에 바뀐 사용자는 기록해 두었다가 다 만든 뒤 그 사용자만 DB 에서 다시 읽는다.
+- 다 만들기 전(isReady() == false)에는 PostService 가 DB 로 조회한다.
+- 서버가 여러 대면 다른 서버에서 누른 좋아요는 반영되지 않는다. (단일 인스턴스 전제)
+
+메모리 예산 (좋아요 100만 건 기준, LongBitmap 추정치 + 사용자별 맵 엔트리 ≈ 80바이트)
+- 사용자당 좋아요 100개씩 (사용자 1만명): 약 2MB(값) + 1.5MB(사용자별 오버헤드) ≈ 3.5MB
+- 사용자당 좋아요 1개씩 (사용자 100만명, 최악): 약 150MB
+즉 대략 "좋아요 1건당 2바이트 + 좋아요를 누른 사용자 1명당 150바이트" 이다. estimatedBytes() 로 현재 값을 볼 수 있다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikedPostIndex {
+
+    private static final long PER_USER_ENTRY_BYTES = 80;
+
+    private final LikeEntityRepository likeEntityRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, LongBitmap> likedPostsByUser = new ConcurrentHashMap<>();
+    private final Set<Long> usersChangedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.currentTimeMillis();
+        building = true;
+        ready = false;
+        likedPostsByUser.clear();
+
+        AtomicLong likes = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<LikeKey> likeKeys = likeEntityRepository.streamAllLikeKeys()) {
+                likeKeys.forEach(likeKey -> {
+                    add(likeKey.userId(), likeKey.postId());
+                    likes.incrementAndGet();
+                });
+            }
+        });
+
+        //스트리밍하는 동안 좋아요/취소한 사용자는 스냅샷과 다를 수 있어서 그 사용자만 다시 읽는다.
+        while (!usersChangedWhileBuilding.isEmpty()) {
+            Iterator<Long> userIds = usersChangedWhileBuilding.iterator();
+            Long userId = userIds.next();
+            userIds.remove();
+            reload(userId);
+        }
+        ready = true;
+        building = false;
+
+        log.info("Liked post index built: {} likes, {} users, ~{} bytes in {} ms",
+                likes.get(), likedPostsByUser.size(), estimatedBytes(), System.currentTimeMillis() - startedAt);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isLiking(Long userId, Long postId) {
+        LongBitmap likedPosts = likedPostsByUser.get(userId);
+        if (likedPosts == null) {
+            return false;
+        }
+        synchronized (likedPosts) {
+            return likedPosts.contains(postId);
+        }
+    }
+
+    //postIds 중 좋아요 누른 게시물만
+    public Set<Long> filterLiked(Long userId, Collection<Long> postIds) {
+        Set<Long> liked = new HashSet<>();
+        LongBitmap likedPosts = likedPostsByUser.get(userId);
+        if (likedPosts == null) {
+            return liked;
+        }
+        synchronized (likedPosts) {
+            for (Long postId : postIds) {
+                if (likedPosts.contains(postId)) {
+                    liked.add(postId);
+                }
+            }
+        }
+        return liked;
+    }
+
+    public void like(Long userId, Long postId) {
+        markChanged(userId);
+        add(userId, postId);
+    }
+
+    public void unlike(Long userId, Long postId) {
+        markChanged(userId);
+        likedPostsByUser.computeIfPresent(userId, (id, likedPosts) -> {
+            synchronized (likedPosts) {
+                likedPosts.remove(postId);
+                return likedPosts.isEmpty() ? null : likedPosts;
+            }
+        });
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (LongBitmap likedPosts : likedPostsByUser.values()) {
+            synchronized (likedPosts) {
+                bytes += PER_USER_ENTRY_BYTES + likedPosts.estimatedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    //DB 와 비교: like 테이블을 다시 스트리밍해서 인덱스에 없는 건수와 전체 건수를 센다.
+    public IndexConsistency checkConsistency() {
+        AtomicLong databaseLikes = new AtomicLong();
+        AtomicLong missing = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<LikeKey> likeKeys = likeEntityRepository.streamAllLikeKeys()) {
+                likeKeys.forEach(likeKey -> {
+                    databaseLikes.incrementAndGet();
+                    if (!isLiking(likeKey.userId(), likeKey.postId())) {
+                        missing.incrementAndGet();
+                    }
+                });
+            }
+        });
+
+        long indexedLikes = 0;
+        for (LongBitmap likedPosts : likedPostsByUser.values()) {
+            synchronized (likedPosts) {
+                indexedLikes += likedPosts.cardinality();
+            }
+        }
+        long extra = indexedLikes - (databaseLikes.get() - missing.get());
+        boolean consistent = missing.get() == 0 && extra == 0;
+        if (!consistent) {
+            log.warn("Liked post index differs from database: {} missing, {} extra", missing.get(), extra);
+        }
+        return new IndexConsistency("liked-posts", databaseLikes.get(), indexedLikes, missing.get(), extra, estimatedBytes(), consistent);
+    }
+
+    private void add(Long userId, Long postId) {
+        //compute 안에서 추가해야 unlike 가 빈 비트맵을 지우는 것과 겹치지 않는다.
+        likedPostsByUser.compute(userId, (id, likedPosts) -> {
+            LongBitmap bitmap = likedPosts == null ? new LongBitmap() : likedPosts;
+            synchronized (bitmap) {
+                bitmap.add(postId);
+            }
+            return bitmap;
+        });
+    }
+
+    private void reload(Long userId) {
+        LongBitmap likedPosts = new LongBitmap();
+        likeEntityRepository.findPostIdsByUserId(userId).forEach(likedPosts::add);
+        if (likedPosts.isEmpty()) {
+            likedPostsByUser.remove(userId);
+        } else {
+            likedPostsByUser.put(userId, likedPosts);
+        }
+    }
+
+    private void markChanged(Long userId) {
+        if (building) {
+            usersChangedWhileBuilding.add(userId);
+        }
+    }
+}
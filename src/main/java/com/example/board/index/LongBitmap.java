@@ -0,0 +1,187 @@
+package com.example.board.index;
+
+import java.util.Arrays;
+
+/*
+long 값 집합을 압축해서 저장하는 비트맵 (Roaring bitmap 방식)
+
+값을 상위 48비트(key)와 하위 16비트로 나눈다. key 마다 컨테이너 하나가 하위 16비트 값들을 가진다.
+- 배열 컨테이너: 값이 4096개 이하면 정렬된 char[] (값 하나에 2바이트)
+- 비트맵 컨테이너: 4096개를 넘으면 long[1024] 고정 8KB (값 하나에 1비트)
+게시물 id 는 연속으로 늘어나기 때문에 한 사용자의 좋아요는 보통 key 몇개 안에 모인다.
+
+메모리 (압축 포인터 기준 대략): 비트맵 객체 + key 배열 ≈ 70바이트, key 하나(컨테이너)당 ≈ 50바이트, 값 하나당 2바이트
+(한 컨테이너에 4096개를 넘게 모이면 값 하나당 1비트까지 줄어든다.)
+
+스레드 안전하지 않다. 동시에 쓰려면 밖에서 잠가야 한다.
+ */
+public final class LongBitmap {
+
+    private static final int ARRAY_CONTAINER_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10; //65536 비트
+
+    private long[] keys = new long[1];
+    private Container[] containers = new Container[1];
+    private int keyCount;
+    private long cardinality;
+
+    public boolean add(long value) {
+        long key = value >>> 16;
+        int index = Arrays.binarySearch(keys, 0, keyCount, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key);
+        }
+        if (containers[index].add((char) value)) {
+            cardinality++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        int index = Arrays.binarySearch(keys, 0, keyCount, value >>> 16);
+        if (index < 0 || !containers[index].remove((char) value)) {
+            return false;
+        }
+        cardinality--;
+        if (containers[index].cardinality == 0) {
+            removeContainer(index);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        int index = Arrays.binarySearch(keys, 0, keyCount, value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    //객체 헤더 12바이트 + 참조 4바이트(압축 포인터) 기준 대략적인 크기
+    public long estimatedBytes() {
+        long bytes = 32 + 16 + 8L * keys.length + 16 + 4L * containers.length;
+        for (int i = 0; i < keyCount; i++) {
+            bytes += containers[i].estimatedBytes();
+        }
+        return bytes;
+    }
+
+    private void insertContainer(int index, long key) {
+        if (keyCount == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, keyCount - index);
+        System.arraycopy(containers, index, containers, index + 1, keyCount - index);
+        keys[index] = key;
+        containers[index] = new Container();
+        keyCount++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, keyCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, keyCount - index - 1);
+        keyCount--;
+        containers[keyCount] = null;
+    }
+
+    //하위 16비트 값들: values(정렬 배열) 또는 words(비트맵) 중 하나만 쓴다.
+    private static final class Container {
+
+        private char[] values = new char[4];
+        private long[] words;
+        private int cardinality;
+
+        boolean add(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) != 0) {
+                    return false;
+                }
+                words[value >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_CONTAINER_MAX) {
+                toBitmap();
+                return add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_CONTAINER_MAX, values.length + (values.length >> 1) + 1));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char value) {
+            if (words != null) {
+                long bit = 1L << value;
+                if ((words[value >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_CONTAINER_MAX) {
+                    toArray();
+                }
+                return true;
+            }
+
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char value) {
+            if (words != null) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        long estimatedBytes() {
+            return 24 + (words != null ? 16 + 8L * words.length : 16 + 2L * values.length);
+        }
+
+        private void toBitmap() {
+            words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            values = new char[cardinality];
+            int size = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    values[size++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            words = null;
+        }
+    }
+}
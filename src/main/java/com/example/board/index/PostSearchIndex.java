@@ -0,0 +1,430 @@
+package com.example.board.index;
+
+import com.example.board.model.post.PostBody;
+import com.example.board.repository.PostEntityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/*
+게시물 본문 전문 검색 메모리 인덱스 (역색인 + BM25)
+
+- 단어(Tokenizer) → 압축 포스팅 목록(PostingList: 문서 번호 delta + 빈도를 varint 로 byte[] 에)
+- 문서 번호는 인덱스 안에서만 쓰는 증가 번호다. 게시물을 수정하면 예전 번호를 지우고(deletedDocs) 새 번호로 다시 넣는다.
+  그래서 포스팅 목록은 항상 뒤에 붙이기만 한다. (중간 삽입/재인코딩 없음)
+  지워진 번호의 포스팅은 남아 있다가 검색할때 건너뛴다.
+  지워진 문서가 전체의 compact-deleted-ratio 를 넘으면 (최소 COMPACT_MIN_DELETED_DOCS 개) 살아있는 문서만 새 번호로 다시 써서 정리한다.
+- 검색: 검색어 단어들의 포스팅을 문서 번호 순으로 같이 읽으면서(document-at-a-time) BM25 점수를 매기고
+  상위 limit 개만 힙으로 고른다. 단어가 하나라도 들어있으면 후보 (OR), 점수가 같으면 최신 게시물 먼저
+- 서버가 뜰때 post 테이블을 postId 순으로 스트리밍하면서 rebuild-batch-size 개씩 fork/join 으로 나눠서
+  부분 인덱스를 병렬로 만들고 순서대로 이어 붙인다.
+- 게시물 작성/수정/삭제, 대량 가져오기가 커밋되면 PostService/PostImportService 가 add/remove 한다.
+  만드는 중에 바뀐 게시물은 기록해 두었다가 다 만든 뒤 DB 에서 다시 읽는다.
+- 다 만들기 전(isReady() == false)에는 PostService 가 DB(LIKE)로 조회한다.
+
+메모리: 본문의 서로 다른 단어 하나당 약 2바이트 + 게시물당 약 80바이트 (번호 매핑, 문서 길이)
+→ 평균 30단어 게시물 100만 개면 약 150MB (단어 사전 제외)
+ */
+@Slf4j
+@Component
+public class PostSearchIndex {
+
+    //BM25 파라미터 (일반적으로 쓰는 값)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    //fork/join 에서 더 나누지 않고 한번에 처리할 게시물 수
+    static final int PARTIAL_INDEX_THRESHOLD = 1000;
+    //지워진 문서가 이보다 적으면 비율이 넘어도 정리하지 않는다. (작은 인덱스에서 자주 다시 쓰지 않게)
+    static final int COMPACT_MIN_DELETED_DOCS = 1000;
+
+    private final PostEntityRepository postEntityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildBatchSize;
+    private final double compactDeletedRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByPostId = new HashMap<>();
+    private long[] postIdByDoc = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int docCount;
+    private LongBitmap deletedDocs = new LongBitmap();
+    private long liveDocs;
+    private long liveLength;
+
+    private final Set<Long> postsChangedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    private record ScoredDoc(int doc, long postId, double score) {
+    }
+
+    private static final Comparator<ScoredDoc> WORST_FIRST = Comparator.comparingDouble(ScoredDoc::score)
+            .thenComparingLong(ScoredDoc::postId);
+
+    public PostSearchIndex(PostEntityRepository postEntityRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${board.post-search.rebuild-batch-size:20000}") int rebuildBatchSize,
+                           @Value("${board.post-search.compact-deleted-ratio:0.25}") double compactDeletedRatio) {
+        this.postEntityRepository = postEntityRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.compactDeletedRatio = compactDeletedRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.currentTimeMillis();
+        building = true;
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docByPostId.clear();
+            postIdByDoc = new long[1024];
+            docLengths = new int[1024];
+            docCount = 0;
+            deletedDocs = new LongBitmap();
+            liveDocs = 0;
+            liveLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<PostBody> postBodies = postEntityRepository.streamAllPostBodies()) {
+                List<PostBody> batch = new ArrayList<>(rebuildBatchSize);
+                postBodies.forEach(postBody -> {
+                    batch.add(postBody);
+                    if (batch.size() >= rebuildBatchSize) {
+                        addBatch(batch);
+                        batch.clear();
+                    }
+                });
+                addBatch(batch);
+            }
+        });
+
+        while (!postsChangedWhileBuilding.isEmpty()) {
+            Iterator<Long> postIds = postsChangedWhileBuilding.iterator();
+            Long postId = postIds.next();
+            postIds.remove();
+            reload(postId);
+        }
+        ready = true;
+        building = false;
+
+        log.info("Post search index built: {} posts, {} terms, ~{} bytes in {} ms",
+                liveDocs, postings.size(), estimatedBytes(), System.currentTimeMillis() - startedAt);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //새 게시물이거나 수정된 게시물 (수정이면 예전 문서를 지우고 새 번호로 넣는다)
+    public void add(Long postId, String body) {
+        markChanged(postId);
+        Map<String, Integer> termFrequencies = Tokenizer.termFrequencies(body);
+        lock.writeLock().lock();
+        try {
+            int doc = newDoc(postId, Tokenizer.length(termFrequencies));
+            termFrequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new PostingList()).add(doc, frequency));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        markChanged(postId);
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByPostId.remove(postId);
+            if (doc != null) {
+                delete(doc);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //BM25 점수 순으로 최대 limit 개의 postId
+    public List<Long> search(String query, int limit) {
+        Set<String> terms = Tokenizer.termFrequencies(query).keySet();
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            double averageLength = Math.max(1.0, (double) liveLength / liveDocs);
+            List<PostingList.Cursor> cursors = new ArrayList<>();
+            List<Double> idfs = new ArrayList<>();
+            for (String term : terms) {
+                PostingList postingList = postings.get(term);
+                if (postingList == null) {
+                    continue;
+                }
+                PostingList.Cursor cursor = postingList.cursor();
+                if (cursor.next()) {
+                    cursors.add(cursor);
+                    //지워진 문서도 df 에 들어있어서 살짝 크게 잡힐 수 있다. (정리하거나 다시 빌드하면 정확해짐)
+                    double df = Math.min(postingList.docCount(), liveDocs);
+                    idfs.add(Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5)));
+                }
+            }
+
+            //문서 번호가 가장 작은 것부터: 그 문서를 가진 단어들의 점수를 더하고 커서를 넘긴다.
+            while (true) {
+                int doc = Integer.MAX_VALUE;
+                for (PostingList.Cursor cursor : cursors) {
+                    doc = Math.min(doc, cursor.doc());
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                double score = 0;
+                for (int i = 0; i < cursors.size(); i++) {
+                    PostingList.Cursor cursor = cursors.get(i);
+                    if (cursor.doc() == doc) {
+                        double tf = cursor.termFrequency();
+                        double norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                        score += idfs.get(i) * tf * (K1 + 1) / (tf + norm);
+                        cursor.next();
+                    }
+                }
+                //힙이 찼으면 가장 낮은 점수보다 높을때만 넣는다. (대부분의 문서는 객체를 만들지 않고 지나감)
+                if ((top.size() < limit || score >= top.peek().score()) && !deletedDocs.contains(doc)) {
+                    top.offer(new ScoredDoc(doc, postIdByDoc[doc], score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ScoredDoc> hits = new ArrayList<>(top);
+        hits.sort(WORST_FIRST.reversed());
+        return hits.stream().map(ScoredDoc::postId).toList();
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 8L * postIdByDoc.length + 4L * docLengths.length + 64L * docByPostId.size() + deletedDocs.estimatedBytes();
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                bytes += 40 + 2L * entry.getKey().length() + entry.getValue().estimatedBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //지워졌지만 포스팅에 남아 있는 문서 수 (정리되면 0)
+    long deletedDocCount() {
+        lock.readLock().lock();
+        try {
+            return docCount - liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //fork/join 으로 부분 인덱스를 병렬로 만들고, 잠근 뒤 한번에 이어 붙인다.
+    private void addBatch(List<PostBody> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        PartialIndex partial = ForkJoinPool.commonPool().invoke(new PartialIndexTask(batch, 0, batch.size()));
+        lock.writeLock().lock();
+        try {
+            int base = docCount;
+            for (int i = 0; i < batch.size(); i++) {
+                newDoc(batch.get(i).postId(), partial.docLengths[i]);
+            }
+            partial.postings.forEach((term, postingList) ->
+                    postings.computeIfAbsent(term, key -> new PostingList()).appendShifted(postingList, base));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //lock.writeLock() 안에서 호출
+    private int newDoc(Long postId, int length) {
+        Integer previous = docByPostId.get(postId);
+        if (previous != null) {
+            delete(previous);
+        }
+        if (docCount == postIdByDoc.length) {
+            int capacity = postIdByDoc.length + (postIdByDoc.length >> 1);
+            postIdByDoc = Arrays.copyOf(postIdByDoc, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+        }
+        int doc = docCount++;
+        postIdByDoc[doc] = postId;
+        docLengths[doc] = length;
+        docByPostId.put(postId, doc);
+        liveDocs++;
+        liveLength += length;
+        return doc;
+    }
+
+    private void delete(int doc) {
+        if (deletedDocs.add(doc)) {
+            liveDocs--;
+            liveLength -= docLengths[doc];
+        }
+    }
+
+    //lock.writeLock() 안에서 호출
+    private void compactIfNeeded() {
+        long deleted = docCount - liveDocs;
+        if (deleted >= COMPACT_MIN_DELETED_DOCS && deleted > docCount * compactDeletedRatio) {
+            compact();
+        }
+    }
+
+    //살아있는 문서만 순서대로 0번부터 다시 번호를 매기고 포스팅 목록을 새로 쓴다. (전체 포스팅을 한번 읽음)
+    //점수가 같을때 순서는 postId 로 정하기 때문에 번호가 바뀌어도 검색 결과는 같다.
+    private void compact() {
+        long startedAt = System.currentTimeMillis();
+        int previousDocCount = docCount;
+        int[] newDocByDoc = new int[previousDocCount];
+        int capacity = Math.max(1024, (int) liveDocs);
+        long[] newPostIdByDoc = new long[capacity];
+        int[] newDocLengths = new int[capacity];
+        int live = 0;
+        for (int doc = 0; doc < previousDocCount; doc++) {
+            if (deletedDocs.contains(doc)) {
+                newDocByDoc[doc] = -1;
+                continue;
+            }
+            newDocByDoc[doc] = live;
+            newPostIdByDoc[live] = postIdByDoc[doc];
+            newDocLengths[live] = docLengths[doc];
+            docByPostId.put(postIdByDoc[doc], live);
+            live++;
+        }
+
+        Iterator<Map.Entry<String, PostingList>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, PostingList> entry = entries.next();
+            PostingList compacted = new PostingList();
+            PostingList.Cursor cursor = entry.getValue().cursor();
+            while (cursor.next()) {
+                int newDoc = newDocByDoc[cursor.doc()];
+                if (newDoc >= 0) {
+                    compacted.add(newDoc, cursor.termFrequency());
+                }
+            }
+            if (compacted.docCount() == 0) {
+                entries.remove();
+            } else {
+                entry.setValue(compacted);
+            }
+        }
+
+        postIdByDoc = newPostIdByDoc;
+        docLengths = newDocLengths;
+        docCount = live;
+        deletedDocs = new LongBitmap();
+        log.info("Post search index compacted: {} deleted docs dropped, {} live in {} ms",
+                previousDocCount - live, live, System.currentTimeMillis() - startedAt);
+    }
+
+    private void markChanged(Long postId) {
+        if (building) {
+            postsChangedWhileBuilding.add(postId);
+        }
+    }
+
+    private void reload(Long postId) {
+        Optional<PostBody> postBody = postEntityRepository.findPostBodyById(postId);
+        if (postBody.isPresent()) {
+            add(postId, postBody.get().body());
+        } else {
+            remove(postId);
+        }
+    }
+
+    //batch[from, to) 의 부분 인덱스. 문서 번호는 from 기준 0부터
+    private static final class PartialIndex {
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final int[] docLengths;
+
+        private PartialIndex(int size) {
+            this.docLengths = new int[size];
+        }
+    }
+
+    private static final class PartialIndexTask extends RecursiveTask<PartialIndex> {
+
+        private final List<PostBody> batch;
+        private final int from;
+        private final int to;
+
+        private PartialIndexTask(List<PostBody> batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PartialIndex compute() {
+            if (to - from <= PARTIAL_INDEX_THRESHOLD) {
+                PartialIndex partial = new PartialIndex(to - from);
+                for (int i = from; i < to; i++) {
+                    int doc = i - from;
+                    Map<String, Integer> termFrequencies = Tokenizer.termFrequencies(batch.get(i).body());
+                    partial.docLengths[doc] = Tokenizer.length(termFrequencies);
+                    termFrequencies.forEach((term, frequency) -> partial.postings.computeIfAbsent(term, key -> new PostingList()).add(doc, frequency));
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            PartialIndexTask left = new PartialIndexTask(batch, from, middle);
+            left.fork();
+            PartialIndex right = new PartialIndexTask(batch, middle, to).compute();
+            return merge(left.join(), right, middle - from);
+        }
+
+        //오른쪽 문서 번호를 왼쪽 문서 수만큼 밀어서 이어 붙인다.
+        private static PartialIndex merge(PartialIndex left, PartialIndex right, int leftSize) {
+            PartialIndex merged = new PartialIndex(leftSize + right.docLengths.length);
+            System.arraycopy(left.docLengths, 0, merged.docLengths, 0, leftSize);
+            System.arraycopy(right.docLengths, 0, merged.docLengths, leftSize, right.docLengths.length);
+            merged.postings.putAll(left.postings);
+            right.postings.forEach((term, postingList) ->
+                    merged.postings.computeIfAbsent(term, key -> new PostingList()).appendShifted(postingList, leftSize));
+            return merged;
+        }
+    }
+}
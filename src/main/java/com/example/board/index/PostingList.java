@@ -0,0 +1,99 @@
+package com.example.board.index;
+
+import java.util.Arrays;
+
+/*
+압축된 포스팅 목록: (문서 번호, 단어 빈도) 를 문서 번호 순서로 byte[] 하나에 저장한다.
+
+- 문서 번호는 앞 문서와의 차이(delta)만, 빈도와 함께 가변 길이 정수(varint, 7비트씩)로 쓴다.
+  문서 번호가 촘촘하면 문서당 보통 2바이트 (delta 1바이트 + 빈도 1바이트)
+- 뒤에 붙이기만 한다. (문서 번호는 항상 증가: PostSearchIndex 가 수정된 게시물도 새 번호로 넣음)
+스레드 안전하지 않다. 동시에 쓰려면 밖에서 잠가야 한다.
+ */
+final class PostingList {
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int docCount;
+    private int lastDoc = -1;
+
+    void add(int doc, int termFrequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Documents must be added in increasing order: " + doc + " after " + lastDoc);
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(termFrequency);
+        lastDoc = doc;
+        docCount++;
+    }
+
+    //other 의 문서들을 번호에 docOffset 을 더해서 뒤에 붙인다. (병렬로 만든 부분 인덱스 합치기)
+    void appendShifted(PostingList other, int docOffset) {
+        Cursor cursor = other.cursor();
+        while (cursor.next()) {
+            add(cursor.doc() + docOffset, cursor.termFrequency());
+        }
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    long estimatedBytes() {
+        return 16 + 16 + 12 + data.length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    //앞에서부터 하나씩 읽는다. 만든 뒤에 붙은 문서는 안 보일 수 있다. (읽는 동안은 밖에서 읽기 잠금)
+    final class Cursor {
+
+        private final int end = length;
+        private int position;
+        private int doc = -1;
+        private int termFrequency;
+
+        boolean next() {
+            if (position >= end) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            doc += readVarInt();
+            termFrequency = readVarInt();
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int termFrequency() {
+            return termFrequency;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.board.index;
+
+import java.util.Arrays;
+
+/*
+정렬된 long[] 하나로 된 집합 (Long 박싱 없이 값 하나에 8바이트)
+
+- contains: 이진 탐색 O(log n)
+- add/remove: 이진 탐색 + 배열 이동 O(n) (뒤에 붙이는 경우는 O(1))
+스레드 안전하지 않다. 동시에 쓰려면 밖에서 잠가야 한다.
+ */
+final class SortedLongArray {
+
+    private long[] values = new long[4];
+    private int size;
+
+    boolean add(long value) {
+        if (size > 0 && values[size - 1] < value) { //정렬된 순서로 들어오면 바로 뒤에 붙인다. (빌드할때)
+            ensureCapacity();
+            values[size++] = value;
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        ensureCapacity();
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(long value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    long estimatedBytes() {
+        return 16 + 16 + 8L * values.length;
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.board.index;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+게시물 본문/검색어를 단어로 나눈다.
+
+- 글자/숫자가 아닌 문자에서 자르고 소문자로 바꾼다.
+- 한글은 조사가 붙어서("게시물을", "게시물에") 단어 단위로는 잘 안 맞기 때문에 두 글자씩 겹쳐서 자른다. (bigram)
+  "게시물을" → "게시", "시물", "물을" / 한 글자 단어는 그대로
+- 너무 긴 단어(MAX_TOKEN_LENGTH 초과)는 버린다. (URL, 해시 등)
+ */
+final class Tokenizer {
+
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    private Tokenizer() {
+    }
+
+    //단어 → 나온 횟수
+    static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        if (text == null) {
+            return frequencies;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addWord(lower, start, i, frequencies);
+                start = -1;
+            }
+        }
+        return frequencies;
+    }
+
+    static int length(Map<String, Integer> termFrequencies) {
+        int length = 0;
+        for (int frequency : termFrequencies.values()) {
+            length += frequency;
+        }
+        return length;
+    }
+
+    //단어 안에서 한글이 이어진 부분은 bigram 으로, 나머지는 통째로
+    private static void addWord(String text, int start, int end, Map<String, Integer> frequencies) {
+        int i = start;
+        while (i < end) {
+            boolean hangul = isHangul(text.charAt(i));
+            int runEnd = i;
+            while (runEnd < end && isHangul(text.charAt(runEnd)) == hangul) {
+                runEnd++;
+            }
+            if (hangul && runEnd - i >= 2) {
+                for (int j = i; j + 2 <= runEnd; j++) {
+                    frequencies.merge(text.substring(j, j + 2), 1, Integer::sum);
+                }
+            } else if (runEnd - i <= MAX_TOKEN_LENGTH) {
+                frequencies.merge(text.substring(i, runEnd), 1, Integer::sum);
+            }
+            i = runEnd;
+        }
+    }
+
+    private static boolean isHangul(char c) {
+        return c >= '가' && c <= '힣';
+    }
+}
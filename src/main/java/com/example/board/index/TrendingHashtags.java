@@ -0,0 +1,211 @@
+package com.example.board.index;
+
+import com.example.board.model.hashtag.HashtagUse;
+import com.example.board.model.hashtag.TrendingHashtag;
+import com.example.board.repository.PostHashtagEntityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/*
+인기 해시태그 (최근 window-minutes 동안 작성된 게시물에서 많이 쓰인 태그)
+
+post_hashtag 테이블을 GROUP BY 하지 않고 메모리에서 조금씩 더하고 뺀다.
+- 시간을 bucket-seconds 단위 칸으로 나누고, 칸마다 태그 → 횟수를 센다. 칸들은 링 버퍼로 돌려 쓴다.
+- 칸별 값과 별도로 구간 전체 합계(windowCounts)를 같이 들고 있다.
+  시간이 지나서 가장 오래된 칸이 구간 밖으로 나가면 그 칸의 값만 합계에서 빼고 칸을 비운다.
+  → 태그가 쓰일때 O(1), 칸이 넘어갈때 그 칸에 있던 태그 수만큼
+- top(k) 는 합계를 한번 훑으면서 크기 k 인 최소 힙만 유지한다. O(구간 안 태그 수 × log k)
+- 시간은 태그가 들어온 시간이 아니라 게시물 작성 시간 기준이다.
+  그래서 게시물 삭제/태그 수정때 같은 칸에서 정확히 뺄 수 있고, 서버가 뜰때 DB 에서 다시 만든 값과도 같다.
+- 서버가 뜰때(ApplicationReadyEvent) 최근 구간의 post_hashtag 만 createddatetime 인덱스로 읽어서 채운다.
+  만드는 도중에 커밋된 게시물은 두번 셀 수 있다. (인기 순위용이라 허용)
+- 서버가 여러 대면 다른 서버에서 작성된 게시물은 반영되지 않는다. (단일 인스턴스 전제)
+ */
+@Slf4j
+@Component
+public class TrendingHashtags {
+
+    private final PostHashtagEntityRepository postHashtagEntityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final LongSupplier clock;
+
+    //칸마다 태그 → 횟수 (칸 번호 = epoch millis / bucketMillis, 링 버퍼 위치 = 칸 번호 % bucketCount)
+    private final Map<String, Long>[] counts;
+    private final Map<String, Long> windowCounts = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentBucketId;
+
+    @Autowired
+    public TrendingHashtags(PostHashtagEntityRepository postHashtagEntityRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${board.hashtag.trending-window-minutes:60}") long windowMinutes,
+                            @Value("${board.hashtag.trending-bucket-seconds:60}") long bucketSeconds) {
+        this(postHashtagEntityRepository, transactionTemplate, windowMinutes * 60_000, bucketSeconds * 1000, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    TrendingHashtags(PostHashtagEntityRepository postHashtagEntityRepository,
+                     TransactionTemplate transactionTemplate,
+                     long windowMillis,
+                     long bucketMillis,
+                     LongSupplier clock) {
+        this.postHashtagEntityRepository = postHashtagEntityRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = (int) Math.max(1, windowMillis / bucketMillis);
+        this.clock = clock;
+        this.counts = new Map[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            counts[i] = new HashMap<>();
+        }
+        this.currentBucketId = clock.getAsLong() / bucketMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.currentTimeMillis();
+        lock.lock();
+        try {
+            for (Map<String, Long> bucket : counts) {
+                bucket.clear();
+            }
+            windowCounts.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        long now = clock.getAsLong();
+        ZonedDateTime since = ZonedDateTime.ofInstant(Instant.ofEpochMilli(windowStartMillis(now)), ZoneId.systemDefault());
+        AtomicLong uses = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<HashtagUse> hashtagUses = postHashtagEntityRepository.streamUsesSince(since)) {
+                hashtagUses.forEach(use -> {
+                    add(use.tag(), use.createdDateTime().toInstant().toEpochMilli());
+                    uses.incrementAndGet();
+                });
+            }
+        });
+        log.info("Trending hashtags built: {} uses of {} tags in {} ms",
+                uses.get(), size(), System.currentTimeMillis() - startedAt);
+    }
+
+    //createdAtMillis: 게시물 작성 시간
+    public void add(String tag, long createdAtMillis) {
+        record(tag, createdAtMillis, 1);
+    }
+
+    public void remove(String tag, long createdAtMillis) {
+        record(tag, createdAtMillis, -1);
+    }
+
+    //많이 쓰인 순서로 k 개 (같으면 태그 이름 순)
+    public List<TrendingHashtag> top(int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        Comparator<TrendingHashtag> ranking = Comparator.comparingLong(TrendingHashtag::count)
+                .thenComparing(TrendingHashtag::tag, Comparator.reverseOrder());
+        PriorityQueue<TrendingHashtag> heap = new PriorityQueue<>(k + 1, ranking); //가장 순위가 낮은 것이 맨 위
+        lock.lock();
+        try {
+            advance(clock.getAsLong() / bucketMillis);
+            for (Map.Entry<String, Long> entry : windowCounts.entrySet()) {
+                if (heap.size() < k) {
+                    heap.add(new TrendingHashtag(entry.getKey(), entry.getValue()));
+                    continue;
+                }
+                TrendingHashtag lowest = heap.peek();
+                long count = entry.getValue();
+                if (count > lowest.count() || (count == lowest.count() && entry.getKey().compareTo(lowest.tag()) < 0)) {
+                    heap.poll();
+                    heap.add(new TrendingHashtag(entry.getKey(), count));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<TrendingHashtag> top = new ArrayList<>(heap);
+        top.sort(ranking.reversed());
+        return top;
+    }
+
+    //구간 안에 있는 태그 수
+    public int size() {
+        lock.lock();
+        try {
+            return windowCounts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(String tag, long createdAtMillis, long delta) {
+        lock.lock();
+        try {
+            advance(clock.getAsLong() / bucketMillis);
+            //시계가 조금 어긋나서 미래 시간이면 지금 칸에 넣는다.
+            long bucketId = Math.min(createdAtMillis / bucketMillis, currentBucketId);
+            if (bucketId <= currentBucketId - bucketCount) {
+                return; //이미 구간 밖
+            }
+            Map<String, Long> bucket = counts[slot(bucketId)];
+            long before = bucket.getOrDefault(tag, 0L);
+            long after = Math.max(0, before + delta); //칸에 없던 것은 빼지 않는다.
+            if (after == before) {
+                return;
+            }
+            if (after == 0) {
+                bucket.remove(tag);
+            } else {
+                bucket.put(tag, after);
+            }
+            windowCounts.merge(tag, after - before, (total, change) -> total + change == 0 ? null : total + change);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //지금 칸까지 시간을 옮긴다. 새로 쓰게 될 칸에 남아 있던 (구간 밖으로 나간) 값은 합계에서 빼고 비운다.
+    private void advance(long nowBucketId) {
+        if (nowBucketId <= currentBucketId) {
+            return;
+        }
+        for (long bucketId = Math.max(currentBucketId + 1, nowBucketId - bucketCount + 1); bucketId <= nowBucketId; bucketId++) {
+            int slot = slot(bucketId);
+            for (Map.Entry<String, Long> expired : counts[slot].entrySet()) {
+                windowCounts.computeIfPresent(expired.getKey(), (tag, total) -> total.equals(expired.getValue()) ? null : total - expired.getValue());
+            }
+            counts[slot].clear();
+        }
+        currentBucketId = nowBucketId;
+    }
+
+    private int slot(long bucketId) {
+        return (int) Math.floorMod(bucketId, bucketCount);
+    }
+
+    private long windowStartMillis(long now) {
+        return (now / bucketMillis - bucketCount + 1) * bucketMillis;
+    }
+}
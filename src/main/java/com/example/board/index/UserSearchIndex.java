@@ -0,0 +1,285 @@
+package com.example.board.index;
+
+import com.example.board.model.user.UserKey;
+import com.example.board.repository.UserEntityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/*
+username 검색 메모리 인덱스 (LIKE '%q%' 전체 스캔 대신)
+
+- 트라이그램 역색인: 소문자 username 의 연속된 3글자마다 userId 목록(SortedLongArray)을 가진다.
+  검색어가 3글자 이상이면 검색어의 트라이그램 중 가장 짧은 목록을 후보로 하고 (트라이그램이 하나라도 없으면 바로 0건),
+  후보의 username 에 검색어가 실제로 들어있는지 확인한다.
+- 접두어 인덱스: 소문자 username 순으로 정렬된 TreeMap. 자동완성과 2글자 이하 검색어는 접두어로만 찾는다.
+- 순위: 정확히 같음 → 접두어 → 포함, 같은 순위면 짧은 username → 사전순. 상위 limit 개만 힙으로 고른다.
+- 흔한 검색어(예: "user")는 후보가 수십만이 될 수 있어서 max-candidates 개까지만 확인한다.
+  접두어 일치는 먼저 따로 넣기 때문에 후보를 다 못 봐도 상위 결과는 거의 같다.
+- 대소문자는 구분하지 않는다.
+- 서버가 뜰때 user 테이블을 스트리밍해서 만들고, 가입이 커밋되면 UserService 가 add 한다.
+  만드는 중에 바뀐 사용자는 기록해 두었다가 다 만든 뒤 DB 에서 다시 읽는다.
+- 다 만들기 전(isReady() == false)에는 UserService 가 DB(LIKE)로 조회한다.
+
+메모리: username 글자 수만큼의 트라이그램 × 8바이트 + username 문자열 2벌(맵, TreeMap 키)
+→ 평균 12글자 username 100만 명이면 약 150~250MB
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final UserEntityRepository userEntityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCandidates;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> usernames = new HashMap<>(); //userId → 소문자 username
+    private final Map<Long, SortedLongArray> postings = new HashMap<>(); //트라이그램 → userId 목록
+    private final TreeMap<String, Long> prefixes = new TreeMap<>(); //"소문자 username\0userId" → userId
+    private final Set<Long> usersChangedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    private record Hit(long userId, String username, int rank) {
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt(Hit::rank)
+            .thenComparingInt(hit -> hit.username().length())
+            .thenComparing(Hit::username)
+            .thenComparingLong(Hit::userId);
+
+    public UserSearchIndex(UserEntityRepository userEntityRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${board.user-search.max-candidates:5000}") int maxCandidates) {
+        this.userEntityRepository = userEntityRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long startedAt = System.currentTimeMillis();
+        building = true;
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            usernames.clear();
+            postings.clear();
+            prefixes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        //userId 순으로 들어오기 때문에 트라이그램 목록에는 뒤에 붙이기만 한다.
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<UserKey> userKeys = userEntityRepository.streamAllUserKeys()) {
+                userKeys.forEach(userKey -> {
+                    lock.writeLock().lock();
+                    try {
+                        index(userKey.userId(), userKey.username());
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+            }
+        });
+
+        while (!usersChangedWhileBuilding.isEmpty()) {
+            Iterator<Long> userIds = usersChangedWhileBuilding.iterator();
+            Long userId = userIds.next();
+            userIds.remove();
+            reload(userId);
+        }
+        ready = true;
+        building = false;
+
+        log.info("User search index built: {} users, {} trigrams in {} ms",
+                size(), postingsSize(), System.currentTimeMillis() - startedAt);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(Long userId, String username) {
+        markChanged(userId);
+        lock.writeLock().lock();
+        try {
+            index(userId, username);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //순위대로 최대 limit 개의 userId
+    public List<Long> search(String query, int limit) {
+        String q = query.strip().toLowerCase(Locale.ROOT);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        //가장 나쁜 결과가 맨 앞에 오는 힙: limit 개를 넘으면 맨 앞을 버린다.
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        Set<Long> seen = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            //1. 접두어 일치 (사전순으로 limit 개면 충분: 같은 순위 안에서는 짧은 것 → 사전순)
+            int prefixHits = 0;
+            for (Map.Entry<String, Long> entry : prefixes.tailMap(q, true).entrySet()) {
+                String key = entry.getKey();
+                if (!key.startsWith(q)) {
+                    break;
+                }
+                String username = key.substring(0, key.lastIndexOf(KEY_SEPARATOR));
+                offer(top, new Hit(entry.getValue(), username, username.length() == q.length() ? 0 : 1), limit);
+                seen.add(entry.getValue());
+                //짧은 username 이 사전순으로 뒤에 나올 수 있어서 limit 보다 조금 더 본다.
+                if (++prefixHits >= limit * 4) {
+                    break;
+                }
+            }
+
+            //2. 포함 (트라이그램 교집합 → 실제 포함 여부 확인)
+            //접두어 일치만으로 limit 개가 찼으면 포함(순위 2)은 끼어들 수 없어서 건너뛴다.
+            boolean filledByPrefix = top.size() == limit && top.peek().rank() < 2;
+            if (q.length() >= GRAM && !filledByPrefix) {
+                collectContaining(q, top, seen, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(BEST_FIRST);
+        return hits.stream().map(Hit::userId).toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return usernames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int postingsSize() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectContaining(String q, PriorityQueue<Hit> top, Set<Long> seen, int limit) {
+        List<SortedLongArray> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            SortedLongArray list = postings.get(gram(q, i));
+            if (list == null) {
+                return; //없는 트라이그램이 하나라도 있으면 결과 없음
+            }
+            lists.add(list);
+        }
+        //가장 짧은 목록의 후보만 본다. 나머지 목록과 교집합을 구하는 것보다 username 에 직접 contains 하는게 싸다.
+        SortedLongArray smallest = lists.stream().min(Comparator.comparingInt(SortedLongArray::size)).orElseThrow();
+
+        int checked = 0;
+        for (int i = 0; i < smallest.size() && checked < maxCandidates; i++) {
+            long userId = smallest.get(i);
+            if (seen.contains(userId)) {
+                continue;
+            }
+            checked++;
+            String username = usernames.get(userId);
+            if (username != null && username.contains(q)) {
+                offer(top, new Hit(userId, username, 2), limit);
+            }
+        }
+    }
+
+    private static void offer(PriorityQueue<Hit> top, Hit hit, int limit) {
+        top.offer(hit);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    //lock.writeLock() 안에서 호출
+    private void index(long userId, String username) {
+        String lower = username.toLowerCase(Locale.ROOT);
+        String previous = usernames.put(userId, lower);
+        if (previous != null) {
+            if (previous.equals(lower)) {
+                return;
+            }
+            removeGrams(userId, previous);
+        }
+        prefixes.put(lower + KEY_SEPARATOR + userId, userId);
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            postings.computeIfAbsent(gram(lower, i), key -> new SortedLongArray()).add(userId);
+        }
+    }
+
+    private void unindex(long userId) {
+        String previous = usernames.remove(userId);
+        if (previous != null) {
+            removeGrams(userId, previous);
+        }
+    }
+
+    private void removeGrams(long userId, String lower) {
+        prefixes.remove(lower + KEY_SEPARATOR + userId);
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            long gram = gram(lower, i);
+            SortedLongArray list = postings.get(gram);
+            if (list != null && list.remove(userId) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    //3글자를 16비트씩 long 하나로
+    private static long gram(String s, int from) {
+        return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+    }
+
+    private void markChanged(Long userId) {
+        if (building) {
+            usersChangedWhileBuilding.add(userId);
+        }
+    }
+
+    private void reload(Long userId) {
+        Optional<UserKey> userKey = userEntityRepository.findUserKeyByUserId(userId);
+        lock.writeLock().lock();
+        try {
+            unindex(userId);
+            userKey.ifPresent(key -> index(key.userId(), key.username()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
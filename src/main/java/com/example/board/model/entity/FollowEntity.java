@@ -31,7 +31,9 @@ import java.util.Objects;
                 @Index(
                         name = "follow_follower_following_idx",
                         columnList = "follower,following",
-                        unique = true)
+                        unique = true),
+                //팔로워 목록 조회(following 으로 검색)용 인덱스
+                @Index(name = "follow_following_follower_idx", columnList = "following,follower")
         }
 )
 //DB 성능을 개선하기 위해 인덱스를 사용함
@@ -30,15 +30,23 @@ import java.util.Objects;
 @Table(
         name = "\"like\"",
         indexes = {
-                @Index(name = "like_userid_postid_idx",columnList = "userid,postid",unique = true)
+                @Index(name = "like_userid_postid_idx",columnList = "userid,postid",unique = true),
                 //,unique = true 를 한이유는 한명이 한개의 좋아요만 해야하기 떄문에 유니크를 걸어줫다.
+                @Index(name = "like_postid_createddatetime_idx", columnList = "postid,createddatetime")
+                //게시물별 좋아요 조회(좋아요 누른 유저 목록)용: 위 인덱스는 userid 로 시작해서 postid 만으로는 못 쓴다.
         }
 )
 //DB 성능을 개선하기 위해 인덱스를 사용함
 public class LikeEntity {
 
+    //IDENTITY 는 INSERT 를 해야 id 를 알 수 있어서 Hibernate 가 한 행씩 INSERT 한다. (JDBC 배치 불가)
+    //시퀀스는 ID_ALLOCATION_SIZE 만큼 id 를 미리 받아두고 쓰기 때문에 배치 INSERT 가 된다. (대량 가져오기도 같은 시퀀스를 쓴다)
+    public static final String ID_SEQUENCE = "like_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long likeId;
 
     @Column
@@ -0,0 +1,59 @@
+package com.example.board.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+
+/*
+feedFanoutExecutor 가 가득 차서 거절된 타임라인 작업을 잠깐 넣어두는 테이블
+
+요청 스레드에서 fan-out 을 대신 돌리지 않고 여기에 한 줄만 넣고, FeedService 가 주기적으로 꺼내서 다시 fan-out 스레드풀에 넣는다.
+kind 에 따라 쓰는 컬럼이 다르다. (post: postid, followingid = 작성자 / follow, unfollow: followerid, followingid)
+followersCount 는 이벤트가 발행될때의 값이다. (unfollow 는 pull 기준선을 넘었는지를 다시 계산할 수 없어서 그대로 저장)
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "pending_fanout")
+public class PendingFanoutEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long pendingFanoutId;
+
+    @Column(length = 10, nullable = false)
+    private String kind;
+
+    @Column
+    private Long postId;
+
+    @Column
+    private Long followerId;
+
+    @Column(nullable = false)
+    private Long followingId;
+
+    @Column
+    private Long followersCount;
+
+    //게시물 작성 시간 (post 만)
+    @Column
+    private ZonedDateTime createdDateTime;
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PendingFanoutEntity that)) return false;
+        return Objects.equals(pendingFanoutId, that.pendingFanoutId) && Objects.equals(kind, that.kind) && Objects.equals(postId, that.postId) && Objects.equals(followerId, that.followerId) && Objects.equals(followingId, that.followingId) && Objects.equals(followersCount, that.followersCount) && Objects.equals(createdDateTime, that.createdDateTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pendingFanoutId, kind, postId, followerId, followingId, followersCount, createdDateTime);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
@@ -22,6 +23,11 @@ import java.util.Objects;
 
 모든 조회 쿼리에 "deletedDateTime IS NULL" 조건을 자동으로 붙여줍니다.
 덕분에 findAll(), findById() 같은 기본 조회 메서드도 삭제된 데이터는 안 나오게 됩니다.
+
+@DynamicUpdate
+
+UPDATE 할때 바뀐 컬럼만 SET 합니다. likeCount 는 LikeCountAggregator 가 SQL 로 더해주기 때문에
+게시물 수정(body) 저장할때 예전 likeCount 값으로 덮어쓰면 안 됩니다.
  */
 @Entity
 @Getter
@@ -29,16 +35,26 @@ import java.util.Objects;
 @NoArgsConstructor
 @SQLDelete(sql = "UPDATE \"post\" SET deleteddatetime = CURRENT_TIMESTAMP WHERE postid = ?")
 @SQLRestriction("deleteddatetime IS NULL")
+@DynamicUpdate
 @Table(
         name = "post",
-        indexes = {@Index(name = "post_userid_idx",columnList = "userid")})
-//post_userid_idx → 그냥 인덱스 이름 (네가 커스텀 가능)
-//userid → DB 실제 컬럼명 (정확히 적어야 함)
+        indexes = {
+                @Index(name = "post_createddatetime_postid_idx", columnList = "createddatetime,postid"),
+                @Index(name = "post_userid_createddatetime_postid_idx", columnList = "userid,createddatetime,postid")})
+//post_createddatetime_postid_idx → 그냥 인덱스 이름 (네가 커스텀 가능)
+//createddatetime,postid → DB 실제 컬럼명 (정확히 적어야 함), 키셋 페이지네이션 정렬 순서와 같아야 한다.
+//userid 로 시작하는 복합 인덱스가 기존 userid 단일 인덱스 역할도 같이 한다.
 //DB 성능을 개선하기 위해 인덱스를 사용함
 public class PostEntity {
 
+    //IDENTITY 는 INSERT 를 해야 id 를 알 수 있어서 Hibernate 가 한 행씩 INSERT 한다. (JDBC 배치 불가)
+    //시퀀스는 ID_ALLOCATION_SIZE 만큼 id 를 미리 받아두고 쓰기 때문에 배치 INSERT 가 된다. (대량 가져오기도 같은 시퀀스를 쓴다)
+    public static final String ID_SEQUENCE = "post_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long postId;
 
     @Column(columnDefinition = "TEXT", nullable = false)
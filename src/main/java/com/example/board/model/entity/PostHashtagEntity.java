@@ -0,0 +1,65 @@
+package com.example.board.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+
+/*
+게시물 본문의 #해시태그를 한 줄씩 따로 저장하는 테이블
+
+게시물을 작성/수정할때 HashtagService 가 본문에서 태그를 뽑아서 (tag, postid) 로 넣는다.
+그래서 태그별 게시물 조회는 post.body 를 훑지 않고 post_hashtag_tag_createddatetime_postid_idx 인덱스를 한번 범위 스캔하는 것으로 끝난다.
+createdDateTime 은 태그가 들어간 시간이 아니라 게시물 작성 시간이다. (게시물 정렬 순서와 같아야 함)
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "post_hashtag",
+        indexes = {
+                @Index(
+                        name = "post_hashtag_tag_createddatetime_postid_idx",
+                        columnList = "tag,createddatetime,postid",
+                        unique = true),
+                @Index(name = "post_hashtag_postid_idx", columnList = "postid"),
+                @Index(name = "post_hashtag_createddatetime_idx", columnList = "createddatetime")
+        }
+)
+//postid 인덱스: 게시물 수정/삭제할때 그 게시물의 태그를 찾는다.
+//createddatetime 인덱스: 서버가 뜰때 최근 구간의 태그만 읽어서 인기 해시태그를 다시 만든다.
+public class PostHashtagEntity {
+
+    public static final int MAX_TAG_LENGTH = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long postHashtagId;
+
+    //소문자로 정규화된 태그 (# 제외)
+    @Column(length = MAX_TAG_LENGTH, nullable = false)
+    private String tag;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "postid")
+    private PostEntity post;
+
+    @Column
+    private ZonedDateTime createdDateTime;
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PostHashtagEntity that)) return false;
+        return Objects.equals(postHashtagId, that.postHashtagId) && Objects.equals(tag, that.tag) && Objects.equals(post, that.post) && Objects.equals(createdDateTime, that.createdDateTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(postHashtagId, tag, post, createdDateTime);
+    }
+}
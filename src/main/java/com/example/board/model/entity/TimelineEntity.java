@@ -0,0 +1,67 @@
+package com.example.board.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+
+/*
+홈 타임라인(내가 팔로우한 유저들의 게시물)을 미리 만들어 두는 테이블
+
+게시물이 작성되면 작성자의 팔로워마다 한 줄씩 (userid = 팔로워, postid = 게시물) 을 넣어둔다. (fan-out on write)
+그래서 피드 조회는 timeline_userid_createddatetime_postid_idx 인덱스를 한번 범위 스캔하는 것으로 끝난다.
+createdDateTime 은 타임라인에 들어간 시간이 아니라 게시물 작성 시간이다. (게시물 정렬 순서와 같아야 함)
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+        name = "timeline",
+        indexes = {
+                @Index(
+                        name = "timeline_userid_createddatetime_postid_idx",
+                        columnList = "userid,createddatetime,postid",
+                        unique = true),
+                @Index(name = "timeline_userid_authorid_idx", columnList = "userid,authorid")
+        }
+)
+//DB 성능을 개선하기 위해 인덱스를 사용함
+public class TimelineEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long timelineId;
+
+    @Column
+    private ZonedDateTime createdDateTime;
+
+    //타임라인 주인
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "userid")
+    private UserEntity user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "postid")
+    private PostEntity post;
+
+    //언팔로우 했을때 해당 작성자의 게시물만 지우기 위해 작성자도 같이 저장한다.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "authorid")
+    private UserEntity author;
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TimelineEntity that)) return false;
+        return Objects.equals(timelineId, that.timelineId) && Objects.equals(createdDateTime, that.createdDateTime) && Objects.equals(user, that.user) && Objects.equals(post, that.post) && Objects.equals(author, that.author);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timelineId, createdDateTime, user, post, author);
+    }
+}
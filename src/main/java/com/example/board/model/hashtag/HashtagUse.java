@@ -0,0 +1,7 @@
+package com.example.board.model.hashtag;
+
+import java.time.ZonedDateTime;
+
+//인기 해시태그를 다시 만들때 쓰는 (태그, 게시물 작성 시간)
+public record HashtagUse(String tag, ZonedDateTime createdDateTime) {
+}
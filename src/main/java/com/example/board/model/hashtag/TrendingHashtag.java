@@ -0,0 +1,5 @@
+package com.example.board.model.hashtag;
+
+//최근 구간에 작성된 게시물에서 태그가 쓰인 횟수
+public record TrendingHashtag(String tag, long count) {
+}
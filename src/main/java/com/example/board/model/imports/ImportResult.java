@@ -0,0 +1,11 @@
+package com.example.board.model.imports;
+
+//skipped: 작성자(username)가 없거나 본문이 비어서 건너뛴 행 수 (게시물이 건너뛰어지면 그 댓글들도 같이 센다)
+public record ImportResult(
+        Long postsImported,
+        Long repliesImported,
+        Long skipped,
+        Long chunks,
+        Long elapsedMillis,
+        Long rowsPerSecond) {
+}
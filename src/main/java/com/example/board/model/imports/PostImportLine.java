@@ -0,0 +1,10 @@
+package com.example.board.model.imports;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+//NDJSON 한 줄 = 게시물 하나 + 그 게시물의 댓글들
+//{"username":"alice","body":"...","createdDateTime":"2015-03-01T10:00:00Z","replies":[{"username":"bob","body":"..."}]}
+//createdDateTime 이 없으면 가져온 시간으로 저장한다.
+public record PostImportLine(String username, String body, ZonedDateTime createdDateTime, List<ReplyImportLine> replies) {
+}
@@ -0,0 +1,6 @@
+package com.example.board.model.imports;
+
+import java.time.ZonedDateTime;
+
+public record ReplyImportLine(String username, String body, ZonedDateTime createdDateTime) {
+}
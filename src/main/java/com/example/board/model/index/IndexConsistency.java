@@ -0,0 +1,14 @@
+package com.example.board.model.index;
+
+//메모리 인덱스와 DB 비교 결과
+//missingFromIndex: DB 에 있는데 인덱스에 없는 수, extraInIndex: 인덱스에만 있는 수
+//검사하는 동안 들어온 쓰기 때문에 몇 건 차이가 날 수 있다. 계속 차이가 나면 인덱스를 다시 만든다.
+public record IndexConsistency(
+        String index,
+        Long databaseEntries,
+        Long indexedEntries,
+        Long missingFromIndex,
+        Long extraInIndex,
+        Long estimatedBytes,
+        Boolean consistent) {
+}
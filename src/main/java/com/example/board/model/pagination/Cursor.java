@@ -0,0 +1,37 @@
+package com.example.board.model.pagination;
+
+import com.example.board.exception.pagination.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+
+//키셋(커서) 페이지네이션 위치: 마지막으로 내려준 row 의 (createdDateTime, id)
+//클라이언트에게는 Base64 문자열(next)로만 보여주기 때문에 내부 구조를 몰라도 된다.
+public record Cursor(ZonedDateTime createdDateTime, Long id) {
+
+    private static final String DELIMITER = "|";
+
+    public String encode() {
+        String raw = createdDateTime.toInstant() + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //next 파라미터가 없으면 첫 페이지 (null 리턴)
+    public static Cursor decode(String next) {
+        if (next == null || next.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(next), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(DELIMITER);
+            Instant createdAt = Instant.parse(raw.substring(0, index));
+            Long id = Long.parseLong(raw.substring(index + 1));
+            return new Cursor(createdAt.atZone(ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(next);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.board.model.post;
+
+//좋아요 한 건의 (userId, postId) 만 담는 조회 결과 (좋아요 인덱스 빌드용)
+public record LikeKey(Long userId, Long postId) {
+}
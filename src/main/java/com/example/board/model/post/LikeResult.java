@@ -0,0 +1,5 @@
+package com.example.board.model.post;
+
+//좋아요 PUT/DELETE 응답: changed 가 false 면 이미 그 상태였다는 뜻 (멱등)
+public record LikeResult(Long postId, Boolean isLiking, Boolean changed) {
+}
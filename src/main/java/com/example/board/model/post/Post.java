@@ -20,6 +20,27 @@ public record Post(
         ZonedDateTime deletedDateTime,
         Boolean isLiking
         ) {
+
+    //JPQL 생성자 프로젝션용(select new ...): 엔티티를 만들지 않고 게시물 + 작성자 컬럼 값으로 바로 Post 를 만든다.
+    public Post(Long postId, String body, Long repliesCount, Long likesCount,
+                Long userId, String username, String profile, String description,
+                Long followersCount, Long followingsCount, ZonedDateTime userCreatedDateTime, ZonedDateTime userUpdatedDateTime,
+                ZonedDateTime createdDateTime, ZonedDateTime updatedDateTime, ZonedDateTime deletedDateTime) {
+        this(postId, body, repliesCount, likesCount,
+                new User(userId, username, profile, description, followersCount, followingsCount, userCreatedDateTime, userUpdatedDateTime, null),
+                createdDateTime, updatedDateTime, deletedDateTime, null);
+    }
+
+    //좋아요 여부는 조회 후에 LikedPostIndex 로 채운다.
+    public Post withIsLiking(Boolean isLiking) {
+        return new Post(postId, body, repliesCount, likesCount, user, createdDateTime, updatedDateTime, deletedDateTime, isLiking);
+    }
+
+    //아직 DB 에 반영되지 않은 좋아요 수를 응답에 더해줄때 사용
+    public Post withLikesCount(Long likesCount) {
+        return new Post(postId, body, repliesCount, likesCount, user, createdDateTime, updatedDateTime, deletedDateTime, isLiking);
+    }
+
     public static Post from(PostEntity postEntity) {
         return new Post(
                 postEntity.getPostId(),
@@ -0,0 +1,5 @@
+package com.example.board.model.post;
+
+//게시물 검색 인덱스를 만들때 쓰는 (postId, 본문)
+public record PostBody(Long postId, String body) {
+}
@@ -0,0 +1,25 @@
+package com.example.board.model.reply;
+
+import com.example.board.model.user.UserSummary;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.ZonedDateTime;
+
+//댓글 목록용 DTO: Reply 와 달리 게시물 전체(+ 게시물 작성자)를 댓글마다 반복해서 넣지 않고 postId 와 작성자 요약만 담는다.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReplyView(
+        Long replyId,
+        String body,
+        Long postId,
+        UserSummary user,
+        ZonedDateTime createdDateTime,
+        ZonedDateTime updatedDateTime
+) {
+
+    //JPQL 생성자 프로젝션용(select new ...): 댓글 + 작성자 컬럼 값으로 바로 만든다.
+    public ReplyView(Long replyId, String body, Long postId,
+                     Long userId, String username, String profile,
+                     ZonedDateTime createdDateTime, ZonedDateTime updatedDateTime) {
+        this(replyId, body, postId, new UserSummary(userId, username, profile), createdDateTime, updatedDateTime);
+    }
+}
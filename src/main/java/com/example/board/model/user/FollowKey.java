@@ -0,0 +1,5 @@
+package com.example.board.model.user;
+
+//팔로우 한 건의 (follower, following) 아이디만 담는 조회 결과 (팔로우 그래프 인덱스 빌드용)
+public record FollowKey(Long followerId, Long followingId) {
+}
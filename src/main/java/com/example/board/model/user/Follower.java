@@ -17,6 +17,17 @@ public record Follower(
         Boolean isFollwing
 ) {
 
+    //JPQL 생성자 프로젝션용(select new ...): 팔로우 여부는 조회 후에 FollowGraphIndex 로 채운다.
+    public Follower(Long userId, String username, String profile, String description,
+                    Long followersCount, Long followingsCount, ZonedDateTime createdDateTime, ZonedDateTime updatedDateTime,
+                    ZonedDateTime followedDateTime) {
+        this(userId, username, profile, description, followersCount, followingsCount, createdDateTime, updatedDateTime, followedDateTime, null);
+    }
+
+    public Follower withIsFollwing(Boolean isFollwing) {
+        return new Follower(userId, username, profile, description, followersCount, followingsCount, createdDateTime, updatedDateTime,
+                followedDateTime, isFollwing);
+    }
 
     public static Follower from(User user, ZonedDateTime followedDateTime) {
         return new Follower(
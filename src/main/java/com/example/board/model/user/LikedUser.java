@@ -1,6 +1,7 @@
 package com.example.board.model.user;
 
 import com.example.board.model.entity.UserEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.ZonedDateTime;
 
@@ -15,10 +16,23 @@ public record LikedUser(
         ZonedDateTime updatedDateTime,
         Boolean isFollwing,
         Long likedPostId,
-        ZonedDateTime likedDateTime
-
+        ZonedDateTime likedDateTime,
+        @JsonIgnore Long likeId //키셋 페이지네이션 커서용 (응답에는 안 나감)
 ) {
 
+    //JPQL 생성자 프로젝션용(select new ...): 팔로우 여부는 조회 후에 FollowGraphIndex 로 채운다.
+    public LikedUser(Long userId, String username, String profile, String description,
+                     Long followersCount, Long followingsCount, ZonedDateTime createdDateTime, ZonedDateTime updatedDateTime,
+                     Long likedPostId, ZonedDateTime likedDateTime, Long likeId) {
+        this(userId, username, profile, description, followersCount, followingsCount, createdDateTime, updatedDateTime,
+                null, likedPostId, likedDateTime, likeId);
+    }
+
+    public LikedUser withIsFollwing(Boolean isFollwing) {
+        return new LikedUser(userId, username, profile, description, followersCount, followingsCount, createdDateTime, updatedDateTime,
+                isFollwing, likedPostId, likedDateTime, likeId);
+    }
+
     public static LikedUser from(User user,Long likedPostId,ZonedDateTime likedDateTime) {
         return new LikedUser(
                 user.userId(),
@@ -31,7 +45,8 @@ public record LikedUser(
                 user.updatedDateTime(),
                 user.isFollwing(),
                 likedPostId,
-                likedDateTime
+                likedDateTime,
+                null
         );
     }
 }
@@ -16,6 +16,16 @@ public record User(
         Boolean isFollwing
 ) {
 
+    //JPQL 생성자 프로젝션용(select new ...): 팔로우 여부는 조회 후에 FollowGraphIndex 로 채운다.
+    public User(Long userId, String username, String profile, String description,
+                Long followersCount, Long followingsCount, ZonedDateTime createdDateTime, ZonedDateTime updatedDateTime) {
+        this(userId, username, profile, description, followersCount, followingsCount, createdDateTime, updatedDateTime, null);
+    }
+
+    public User withIsFollwing(Boolean isFollwing) {
+        return new User(userId, username, profile, description, followersCount, followingsCount, createdDateTime, updatedDateTime, isFollwing);
+    }
+
     public static User from(UserEntity userEntity) {
         return new User(
                 userEntity.getUserId(),
@@ -0,0 +1,5 @@
+package com.example.board.model.user;
+
+//username → userId 만 필요할때 쓰는 가벼운 조회 결과 (엔티티를 영속성 컨텍스트에 올리지 않는다)
+public record UserKey(Long userId, String username) {
+}
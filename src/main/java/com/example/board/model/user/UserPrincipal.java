@@ -0,0 +1,37 @@
+package com.example.board.model.user;
+
+import com.example.board.model.entity.UserEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/*
+인증된 사용자 (SecurityContext 의 principal)
+컨트롤러/서비스는 호출한 사람의 userId 와 username 만 쓰기 때문에 엔티티 대신 이것만 들고 다닌다.
+- 불변이라 요청 스레드끼리 같이 써도 된다.
+- 쓰기 작업에서 엔티티가 필요하면 서비스가 userEntityRepository.getReferenceById(userId) 로 얻는다.
+- 비밀번호는 들고 있지 않는다. (로그인 검증은 UserService.authenticate 가 엔티티로 한다)
+ */
+public record UserPrincipal(Long userId, String username) implements UserDetails {
+
+    public static UserPrincipal from(UserEntity userEntity) {
+        return new UserPrincipal(userEntity.getUserId(), userEntity.getUsername());
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+}
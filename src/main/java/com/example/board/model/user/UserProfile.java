@@ -0,0 +1,19 @@
+package com.example.board.model.user;
+
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.Post;
+import com.example.board.model.reply.ReplyView;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+//프로필 화면 한번에: 유저 + 게시물 첫 페이지 + 팔로워/팔로잉 미리보기 + 최근 댓글
+//시간 안에 못 가져온 부분은 null 로 빠지고 이름이 unavailable 에 들어간다. (다 가져왔으면 unavailable 도 빠짐)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserProfile(User user,
+                          CursorPage<Post> posts,
+                          List<Follower> followers,
+                          List<User> followings,
+                          List<ReplyView> replies,
+                          List<String> unavailable) {
+}
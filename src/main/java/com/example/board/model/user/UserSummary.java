@@ -0,0 +1,5 @@
+package com.example.board.model.user;
+
+//목록에서 작성자 표시용으로 쓰는 최소한의 유저 정보
+public record UserSummary(Long userId, String username, String profile) {
+}
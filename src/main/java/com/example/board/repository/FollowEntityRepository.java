@@ -4,10 +4,22 @@ import com.example.board.model.entity.FollowEntity;
 import com.example.board.model.entity.LikeEntity;
 import com.example.board.model.entity.PostEntity;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.FollowKey;
+import com.example.board.model.user.Follower;
+import com.example.board.model.user.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FollowEntityRepository extends JpaRepository<FollowEntity, Long> {
 
@@ -18,5 +30,70 @@ public interface FollowEntityRepository extends JpaRepository<FollowEntity, Long
 
     Optional<FollowEntity> findByFollowerAndFollowing(UserEntity follower, UserEntity following);
 
+    //팔로우 (INSERT 한번): 이미 팔로우 중이면 아무것도 하지 않는다. 리턴은 INSERT 된 행 수
+    @Modifying
+    @Query(value = """
+            INSERT INTO "follow" (follower, following, createddatetime) VALUES (:followerId, :followingId, CURRENT_TIMESTAMP)
+            ON CONFLICT (follower, following) DO NOTHING""", nativeQuery = true)
+    int insertIfAbsent(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+
+    //언팔로우 (DELETE 한번): 리턴은 삭제된 행 수
+    @Modifying
+    @Query(value = "DELETE FROM \"follow\" WHERE follower = :followerId AND following = :followingId", nativeQuery = true)
+    int deleteByFollowerIdAndFollowingId(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+
+    //username 유저를 팔로우하는 유저들 (팔로우한 시간 포함)
+    @Query("SELECT new com.example.board.model.user.Follower("
+            + UserEntityRepository.USER_VIEW_COLUMNS + ", fw.createdDateTime)"
+            + " FROM FollowEntity fw JOIN fw.follower u WHERE fw.following.userId = :userId")
+    List<Follower> findFollowerViews(@Param("userId") Long userId);
+
+    //userId 유저가 팔로우하는 유저들
+    @Query(UserEntityRepository.USER_VIEW_SELECT + "FROM FollowEntity fw JOIN fw.following u WHERE fw.follower.userId = :userId")
+    List<User> findFollowingViews(@Param("userId") Long userId);
+
+    //프로필 미리보기: 팔로워/팔로잉 전체 대신 limit 명만. 팔로우 인덱스 순서(상대 userId 역순, 최근 가입자 먼저)라서 정렬 없이 앞에서 끊는다.
+    @Query("SELECT new com.example.board.model.user.Follower("
+            + UserEntityRepository.USER_VIEW_COLUMNS + ", fw.createdDateTime)"
+            + " FROM FollowEntity fw JOIN fw.follower u WHERE fw.following.userId = :userId ORDER BY fw.follower.userId DESC")
+    List<Follower> findFollowerViews(@Param("userId") Long userId, Limit limit);
+
+    @Query(UserEntityRepository.USER_VIEW_SELECT
+            + "FROM FollowEntity fw JOIN fw.following u WHERE fw.follower.userId = :userId ORDER BY fw.following.userId DESC")
+    List<User> findFollowingViews(@Param("userId") Long userId, Limit limit);
+
+    //팔로우 그래프 인덱스(FollowGraphIndex) 빌드/검사용: 엔티티 대신 (follower, following) 만 스트리밍한다. (트랜잭션 안에서 써야 함)
+    //follow_follower_following_idx 순서라서 인덱스만 읽고, 양쪽 배열 모두 정렬된 순서로 채워진다.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("""
+            SELECT new com.example.board.model.user.FollowKey(f.follower.userId, f.following.userId) FROM FollowEntity f
+            ORDER BY f.follower.userId, f.following.userId""")
+    Stream<FollowKey> streamAllFollowKeys();
+
+    @Query("SELECT f.following.userId FROM FollowEntity f WHERE f.follower.userId = :followerId")
+    List<Long> findFollowingIdsByFollowerId(@Param("followerId") Long followerId);
+
+    @Query("SELECT f.follower.userId FROM FollowEntity f WHERE f.following.userId = :followingId")
+    List<Long> findFollowerIdsByFollowingId(@Param("followingId") Long followingId);
+
+    //userIds 중 내가 팔로우하는 유저 아이디만 한번의 쿼리로 (팔로우 그래프 인덱스가 아직 준비되지 않았을때)
+    @Query("SELECT f.following.userId FROM FollowEntity f WHERE f.follower.userId = :followerId AND f.following.userId IN :userIds")
+    List<Long> findFollowingIdsIn(@Param("followerId") Long followerId, @Param("userIds") Collection<Long> userIds);
+
+    //findByFollowing 을 나눠서 가져오는 버전: 팔로워가 수십만명이어도 엔티티 대신 아이디만 limit 개씩 가져온다. (타임라인 fan-out 용)
+    @Query("""
+            SELECT f.follower.userId FROM FollowEntity f
+            WHERE f.following.userId = :followingId AND f.follower.userId > :afterFollowerId
+            ORDER BY f.follower.userId""")
+    List<Long> findFollowerIds(@Param("followingId") Long followingId,
+                               @Param("afterFollowerId") Long afterFollowerId,
+                               Limit limit);
+
+    //내가 팔로우한 유저 중 팔로워가 threshold 명 이상인 유저 (피드를 읽을때 pull 해서 합치는 대상)
+    @Query("""
+            SELECT f.following.userId FROM FollowEntity f
+            WHERE f.follower.userId = :followerId AND f.following.followersCount >= :threshold""")
+    List<Long> findFollowingIdsWithFollowersCountAtLeast(@Param("followerId") Long followerId,
+                                                         @Param("threshold") Long threshold);
 
 }
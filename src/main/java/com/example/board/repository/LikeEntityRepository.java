@@ -3,10 +3,22 @@ package com.example.board.repository;
 import com.example.board.model.entity.LikeEntity;
 import com.example.board.model.entity.PostEntity;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.post.LikeKey;
+import com.example.board.model.user.LikedUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LikeEntityRepository extends JpaRepository<LikeEntity, Long> {
 
@@ -17,4 +29,63 @@ public interface LikeEntityRepository extends JpaRepository<LikeEntity, Long> {
 
    Optional<LikeEntity> findByUserAndPost(UserEntity user, PostEntity post);
 
+    //게시물 목록에서 유저가 좋아요 누른 게시물 아이디만 한번의 쿼리로 가져온다. (게시물마다 조회하면 N번 쿼리가 나감)
+    @Query("SELECT l.post.postId FROM LikeEntity l WHERE l.user.userId = :userId AND l.post.postId IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+
+    //좋아요 인덱스(LikedPostIndex) 빌드/검사용: 엔티티 대신 (userId, postId) 만 스트리밍한다. (트랜잭션 안에서 써야 함)
+    //like_userid_postid_idx 순서라서 인덱스만 읽고, 같은 사용자의 좋아요가 모여서 나온다.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("""
+            SELECT new com.example.board.model.post.LikeKey(l.user.userId, l.post.postId) FROM LikeEntity l
+            ORDER BY l.user.userId, l.post.postId""")
+    Stream<LikeKey> streamAllLikeKeys();
+
+    @Query("SELECT l.post.postId FROM LikeEntity l WHERE l.user.userId = :userId")
+    List<Long> findPostIdsByUserId(@Param("userId") Long userId);
+
+    //좋아요 누르기 (INSERT 한번): 이미 눌렀거나 게시물이 없으면 아무것도 하지 않는다.
+    //리턴: 변경된 행 수 (1 = 새로 좋아요, 0 = 변경 없음) → 0 이면 카운터를 건드리지 않는다.
+    //동시에 두번 눌러도 유니크 인덱스(like_userid_postid_idx) 충돌이 ON CONFLICT DO NOTHING 으로 처리돼서 500 이 나지 않는다.
+    @Modifying
+    @Query(value = """
+            INSERT INTO "like" (likeid, userid, postid, createddatetime)
+            SELECT nextval('like_seq'), :userId, p.postid, CURRENT_TIMESTAMP FROM post p
+            WHERE p.postid = :postId AND p.deleteddatetime IS NULL
+            ON CONFLICT (userid, postid) DO NOTHING""", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    //좋아요 취소 (DELETE 한번): 리턴은 삭제된 행 수
+    @Modifying
+    @Query(value = "DELETE FROM \"like\" WHERE userid = :userId AND postid = :postId", nativeQuery = true)
+    int deleteByUserIdAndPostId(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    //게시물에 좋아요 누른 유저들: 좋아요 + 유저 + 팔로우 여부를 한번의 쿼리로 가져온다.
+    @Query("SELECT new com.example.board.model.user.LikedUser("
+            + UserEntityRepository.USER_VIEW_COLUMNS + ", l.post.postId, l.createdDateTime, l.likeId)"
+            + " FROM LikeEntity l JOIN l.user u WHERE l.post.postId = :postId")
+    List<LikedUser> findLikedUserViewsByPostId(@Param("postId") Long postId);
+
+    /*
+    userId 가 쓴 게시물들에 좋아요 누른 유저들 (좋아요 누른 시간 최신순)
+    게시물마다 좋아요를 따로 조회하지 않고 like ⋈ post 조인 한번으로 가져온다. (삭제된 게시물/유저는 @SQLRestriction 으로 빠짐)
+    키셋 페이지네이션: (좋아요 시간, likeId) 기준으로 limit 개씩
+     */
+    String LIKED_USER_BY_AUTHOR_SELECT = "SELECT new com.example.board.model.user.LikedUser("
+            + UserEntityRepository.USER_VIEW_COLUMNS + ", p.postId, l.createdDateTime, l.likeId)"
+            + " FROM LikeEntity l JOIN l.post p JOIN l.user u ";
+
+    @Query(LIKED_USER_BY_AUTHOR_SELECT + """
+            WHERE p.user.userId = :userId
+            ORDER BY l.createdDateTime DESC, l.likeId DESC""")
+    List<LikedUser> findLikedUserViewsByPostAuthorId(@Param("userId") Long userId, Limit limit);
+
+    @Query(LIKED_USER_BY_AUTHOR_SELECT + """
+            WHERE p.user.userId = :userId AND (l.createdDateTime, l.likeId) < (:createdDateTime, :likeId)
+            ORDER BY l.createdDateTime DESC, l.likeId DESC""")
+    List<LikedUser> findLikedUserViewsByPostAuthorIdBefore(@Param("userId") Long userId,
+                                                           @Param("createdDateTime") ZonedDateTime createdDateTime,
+                                                           @Param("likeId") Long likeId,
+                                                           Limit limit);
+
 }
@@ -2,16 +2,126 @@ package com.example.board.repository;
 
 import com.example.board.model.entity.PostEntity;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.Cursor;
+import com.example.board.model.post.Post;
+import com.example.board.model.post.PostBody;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostEntityRepository extends JpaRepository<PostEntity, Long> {
 
+    /*
+    읽기 전용 조회용 select 절 (생성자 프로젝션)
+    엔티티를 만들지 않기 때문에 영속성 컨텍스트, 변경 감지용 스냅샷, 지연 로딩 프록시가 생기지 않는다.
+    작성자는 같은 쿼리로 조인한다. 좋아요 여부는 PostService 가 LikedPostIndex(메모리)로 채운다.
+     */
+    String POST_VIEW_SELECT = """
+            SELECT new com.example.board.model.post.Post(
+                p.postId, p.body, p.repliesCount, p.likeCount,
+                u.userId, u.username, u.profile, u.description,
+                u.followersCount, u.followingsCount, u.createdDateTime, u.updatedDateTime,
+                p.createdDateTime, p.updatedDateTime, p.deletedDateTime)
+            """;
 
+    //Post.from 에서 작성자(user)를 꺼내기 때문에 게시물을 가져올때 작성자도 같은 쿼리로 조인해서 가져온다. (N+1 방지)
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<PostEntity> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<PostEntity> findAllById(Iterable<Long> postIds);
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<PostEntity> findById(Long postId);
+
+    @EntityGraph(attributePaths = "user")
     List<PostEntity> findByUser(UserEntity user);
 
     List<PostEntity> findByPostId(Long postId);
+
+    //댓글 수: 엔티티를 읽고 +1 해서 저장하지 않고 DB 에서 바로 더한다. (동시에 댓글을 달아도 유실 없음, 0 아래로는 안 내려감)
+    @Modifying
+    @Query(value = "UPDATE post SET repliescount = GREATEST(repliescount + :delta, 0) WHERE postid = :postId", nativeQuery = true)
+    int addRepliesCount(@Param("postId") Long postId, @Param("delta") long delta);
+
+    @Query(POST_VIEW_SELECT + "FROM PostEntity p JOIN p.user u WHERE p.postId = :postId")
+    Optional<Post> findViewById(@Param("postId") Long postId);
+
+    @Query(POST_VIEW_SELECT + "FROM PostEntity p JOIN p.user u WHERE p.postId IN :postIds")
+    List<Post> findViewsByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    //PostSearchIndex 를 만들기 전에만 쓴다. (LIKE '%q%' 는 전체 스캔)
+    @Query(POST_VIEW_SELECT + "FROM PostEntity p JOIN p.user u WHERE LOWER(p.body) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY p.postId DESC")
+    List<Post> findViewsByBodyContaining(@Param("query") String query, Limit limit);
+
+    //PostSearchIndex 빌드용 (postId 순서)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.example.board.model.post.PostBody(p.postId, p.body) FROM PostEntity p ORDER BY p.postId")
+    Stream<PostBody> streamAllPostBodies();
+
+    @Query("SELECT new com.example.board.model.post.PostBody(p.postId, p.body) FROM PostEntity p WHERE p.postId = :postId")
+    Optional<PostBody> findPostBodyById(@Param("postId") Long postId);
+
+    //키셋 페이지네이션: (createdDateTime, postId) 복합 인덱스를 역순으로 훑기 때문에 몇번째 페이지든 비용이 같다. (OFFSET 은 앞 페이지를 다 읽고 버림)
+    @Query(POST_VIEW_SELECT + """
+            FROM PostEntity p JOIN p.user u
+            ORDER BY p.createdDateTime DESC, p.postId DESC""")
+    List<Post> findLatestViews(Limit limit);
+
+    @Query(POST_VIEW_SELECT + """
+            FROM PostEntity p JOIN p.user u
+            WHERE (p.createdDateTime, p.postId) < (:createdDateTime, :postId)
+            ORDER BY p.createdDateTime DESC, p.postId DESC""")
+    List<Post> findLatestViewsBefore(@Param("createdDateTime") ZonedDateTime createdDateTime,
+                                     @Param("postId") Long postId,
+                                     Limit limit);
+
+    @Query(POST_VIEW_SELECT + """
+            FROM PostEntity p JOIN p.user u
+            WHERE p.user.userId = :userId
+            ORDER BY p.createdDateTime DESC, p.postId DESC""")
+    List<Post> findLatestViewsByUserId(@Param("userId") Long userId,
+                                       Limit limit);
+
+    @Query(POST_VIEW_SELECT + """
+            FROM PostEntity p JOIN p.user u
+            WHERE p.user.userId = :userId AND (p.createdDateTime, p.postId) < (:createdDateTime, :postId)
+            ORDER BY p.createdDateTime DESC, p.postId DESC""")
+    List<Post> findLatestViewsByUserIdBefore(@Param("userId") Long userId,
+                                             @Param("createdDateTime") ZonedDateTime createdDateTime,
+                                             @Param("postId") Long postId,
+                                             Limit limit);
+
+    //게시물 대신 정렬 키(createdDateTime, postId)만 가져온다. (피드 pull 대상 작성자의 최근 게시물 캐시용)
+    @Query("""
+            SELECT new com.example.board.model.pagination.Cursor(p.createdDateTime, p.postId) FROM PostEntity p
+            WHERE p.user.userId = :userId
+            ORDER BY p.createdDateTime DESC, p.postId DESC""")
+    List<Cursor> findLatestKeysByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+            SELECT new com.example.board.model.pagination.Cursor(p.createdDateTime, p.postId) FROM PostEntity p
+            WHERE p.user.userId = :userId AND (p.createdDateTime, p.postId) < (:createdDateTime, :postId)
+            ORDER BY p.createdDateTime DESC, p.postId DESC""")
+    List<Cursor> findLatestKeysByUserIdBefore(@Param("userId") Long userId,
+                                              @Param("createdDateTime") ZonedDateTime createdDateTime,
+                                              @Param("postId") Long postId,
+                                              Limit limit);
 }
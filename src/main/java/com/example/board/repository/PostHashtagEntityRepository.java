@@ -0,0 +1,40 @@
+package com.example.board.repository;
+
+import com.example.board.model.entity.PostHashtagEntity;
+import com.example.board.model.hashtag.HashtagUse;
+import com.example.board.model.post.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PostHashtagEntityRepository extends JpaRepository<PostHashtagEntity, Long> {
+
+    //태그별 게시물: (tag, createdDateTime, postId) 인덱스를 최신순으로 범위 스캔하고 게시물과 작성자를 조인한다. (삭제된 게시물은 @SQLRestriction 으로 빠짐)
+    @Query(PostEntityRepository.POST_VIEW_SELECT + """
+            FROM PostHashtagEntity h JOIN h.post p JOIN p.user u
+            WHERE h.tag = :tag
+            ORDER BY h.createdDateTime DESC, h.post.postId DESC""")
+    List<Post> findLatestPostViewsByTag(@Param("tag") String tag, Limit limit);
+
+    @Query(PostEntityRepository.POST_VIEW_SELECT + """
+            FROM PostHashtagEntity h JOIN h.post p JOIN p.user u
+            WHERE h.tag = :tag AND (h.createdDateTime, h.post.postId) < (:createdDateTime, :postId)
+            ORDER BY h.createdDateTime DESC, h.post.postId DESC""")
+    List<Post> findLatestPostViewsByTagBefore(@Param("tag") String tag,
+                                              @Param("createdDateTime") ZonedDateTime createdDateTime,
+                                              @Param("postId") Long postId,
+                                              Limit limit);
+
+    //TrendingHashtags 빌드용 (createddatetime 인덱스로 최근 구간만 읽는다)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.example.board.model.hashtag.HashtagUse(h.tag, h.createdDateTime) FROM PostHashtagEntity h WHERE h.createdDateTime >= :since")
+    Stream<HashtagUse> streamUsesSince(@Param("since") ZonedDateTime since);
+}
@@ -3,14 +3,54 @@ package com.example.board.repository;
 import com.example.board.model.entity.PostEntity;
 import com.example.board.model.entity.ReplyEntity;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.reply.ReplyView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 
 public interface ReplyEntityRepository extends JpaRepository<ReplyEntity, Long> {
 
+    //댓글 목록용 select 절 (생성자 프로젝션): 작성자는 같은 쿼리로 조인한다.
+    //게시물도 조인해서 삭제된 게시물의 댓글은 @SQLRestriction 으로 빠진다. (postId 조건은 r.post.postId 가 아니라 p.postId 로)
+    String REPLY_VIEW_SELECT = """
+            SELECT new com.example.board.model.reply.ReplyView(
+                r.replyId, r.body, p.postId,
+                u.userId, u.username, u.profile,
+                r.createdDateTime, r.updatedDateTime)
+            FROM ReplyEntity r JOIN r.post p JOIN r.user u
+            """;
+
     List<ReplyEntity> findByUser(UserEntity user);
 
     List<ReplyEntity> findByPost(PostEntity post);
 
+    //댓글 삭제 (soft delete): 아직 지워지지 않은 댓글만 지운다. 리턴이 1 일때만 댓글 수를 줄인다. (동시에 두번 지워도 한번만 감소)
+    @Modifying
+    @Query(value = "UPDATE reply SET deleteddatetime = CURRENT_TIMESTAMP WHERE replyid = :replyId AND deleteddatetime IS NULL", nativeQuery = true)
+    int softDeleteById(@Param("replyId") Long replyId);
+
+    //게시물의 댓글: 오래된 순으로 (postid, createddatetime, replyid) 인덱스를 따라 limit 개씩 (키셋 페이지네이션)
+    @Query(REPLY_VIEW_SELECT + """
+            WHERE p.postId = :postId
+            ORDER BY r.createdDateTime, r.replyId""")
+    List<ReplyView> findViewsByPostId(@Param("postId") Long postId, Limit limit);
+
+    //유저의 최근 댓글 (프로필용): (userid, createddatetime, replyid) 인덱스를 역순으로 limit 개
+    @Query(REPLY_VIEW_SELECT + """
+            WHERE r.user.userId = :userId
+            ORDER BY r.createdDateTime DESC, r.replyId DESC""")
+    List<ReplyView> findLatestViewsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(REPLY_VIEW_SELECT + """
+            WHERE p.postId = :postId AND (r.createdDateTime, r.replyId) > (:createdDateTime, :replyId)
+            ORDER BY r.createdDateTime, r.replyId""")
+    List<ReplyView> findViewsByPostIdAfter(@Param("postId") Long postId,
+                                           @Param("createdDateTime") ZonedDateTime createdDateTime,
+                                           @Param("replyId") Long replyId,
+                                           Limit limit);
 }
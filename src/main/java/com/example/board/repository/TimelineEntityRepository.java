@@ -0,0 +1,30 @@
+package com.example.board.repository;
+
+import com.example.board.model.entity.TimelineEntity;
+import com.example.board.model.post.Post;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public interface TimelineEntityRepository extends JpaRepository<TimelineEntity, Long> {
+
+    //피드 조회: 내 타임라인 인덱스를 최신순으로 범위 스캔하고 게시물과 작성자를 조인한다. (삭제된 게시물은 @SQLRestriction 으로 빠짐)
+    @Query(PostEntityRepository.POST_VIEW_SELECT + """
+            FROM TimelineEntity t JOIN t.post p JOIN p.user u
+            WHERE t.user.userId = :currentUserId
+            ORDER BY t.createdDateTime DESC, t.post.postId DESC""")
+    List<Post> findLatestPostViews(@Param("currentUserId") Long currentUserId, Limit limit);
+
+    @Query(PostEntityRepository.POST_VIEW_SELECT + """
+            FROM TimelineEntity t JOIN t.post p JOIN p.user u
+            WHERE t.user.userId = :currentUserId AND (t.createdDateTime, t.post.postId) < (:createdDateTime, :postId)
+            ORDER BY t.createdDateTime DESC, t.post.postId DESC""")
+    List<Post> findLatestPostViewsBefore(@Param("currentUserId") Long currentUserId,
+                                         @Param("createdDateTime") ZonedDateTime createdDateTime,
+                                         @Param("postId") Long postId,
+                                         Limit limit);
+}
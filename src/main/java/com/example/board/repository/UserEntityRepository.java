@@ -1,14 +1,82 @@
 package com.example.board.repository;
 
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.User;
+import com.example.board.model.user.UserKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserEntityRepository extends JpaRepository<UserEntity, Long> {
 
+    //읽기 전용 조회용 select 절 (생성자 프로젝션): 팔로우 여부는 UserService 가 FollowGraphIndex(메모리)로 채운다.
+    String USER_VIEW_COLUMNS = """
+                u.userId, u.username, u.profile, u.description,
+                u.followersCount, u.followingsCount, u.createdDateTime, u.updatedDateTime
+            """;
+
+    String USER_VIEW_SELECT = "SELECT new com.example.board.model.user.User(" + USER_VIEW_COLUMNS + ") ";
+
     Optional<UserEntity> findByUsername(String username);
 
     List<UserEntity> findByUsernameContaining(String username);
+
+    @Query("SELECT u.userId FROM UserEntity u WHERE u.username = :username")
+    Optional<Long> findUserIdByUsername(@Param("username") String username);
+
+    //대량 가져오기: 청크에 나온 username 들을 한번에 userId 로 바꾼다.
+    @Query("SELECT new com.example.board.model.user.UserKey(u.userId, u.username) FROM UserEntity u WHERE u.username IN :usernames")
+    List<UserKey> findUserKeysByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    //로그인때 해시 cost 를 올려서 다시 저장 (updatedDateTime 은 건드리지 않는다)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET password = :password WHERE userid = :userId", nativeQuery = true)
+    int updatePassword(@Param("userId") Long userId, @Param("password") String password);
+
+    //팔로워/팔로잉 수: 엔티티를 읽지 않고 DB 에서 바로 더한다. (동시에 바뀌어도 유실 없음, 0 아래로는 안 내려감)
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET followerscount = GREATEST(followerscount + :delta, 0) WHERE userid = :userId", nativeQuery = true)
+    int addFollowersCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    //언팔로우: 팔로워 수를 하나 줄이고 줄인 값을 돌려준다. (같은 행 잠금 안에서 읽으므로 동시에 언팔로우해도 서로 다른 값을 받는다)
+    @Query(value = "UPDATE \"user\" SET followerscount = GREATEST(followerscount - 1, 0) WHERE userid = :userId RETURNING followerscount", nativeQuery = true)
+    long decrementFollowersCount(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE \"user\" SET followingscount = GREATEST(followingscount + :delta, 0) WHERE userid = :userId", nativeQuery = true)
+    int addFollowingsCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Query(USER_VIEW_SELECT + "FROM UserEntity u WHERE u.username = :username")
+    Optional<User> findViewByUsername(@Param("username") String username);
+
+    //UserSearchIndex 를 만들기 전에만 쓴다. (LIKE '%q%' 는 전체 스캔)
+    @Query(USER_VIEW_SELECT + "FROM UserEntity u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) ORDER BY u.userId")
+    List<User> findViewsByUsernameContaining(@Param("query") String query, Limit limit);
+
+    @Query(USER_VIEW_SELECT + "FROM UserEntity u WHERE u.userId IN :userIds")
+    List<User> findViewsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    //검색어가 없을때: 최근 가입한 순으로 limit 명만
+    @Query(USER_VIEW_SELECT + "FROM UserEntity u ORDER BY u.userId DESC")
+    List<User> findLatestViews(Limit limit);
+
+    //UserSearchIndex 빌드용
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new com.example.board.model.user.UserKey(u.userId, u.username) FROM UserEntity u ORDER BY u.userId")
+    Stream<UserKey> streamAllUserKeys();
+
+    @Query("SELECT new com.example.board.model.user.UserKey(u.userId, u.username) FROM UserEntity u WHERE u.userId = :userId")
+    Optional<UserKey> findUserKeyByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,44 @@
+package com.example.board.service;
+
+import com.example.board.exception.user.UserNotAllowedException;
+import com.example.board.index.FollowGraphIndex;
+import com.example.board.index.LikedPostIndex;
+import com.example.board.model.index.IndexConsistency;
+import com.example.board.model.user.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+@Service
+public class AdminService {
+
+    private final Set<String> adminUsernames;
+    private final LikedPostIndex likedPostIndex;
+    private final FollowGraphIndex followGraphIndex;
+
+    public AdminService(@Value("${board.admin.usernames:}") Set<String> adminUsernames,
+                        LikedPostIndex likedPostIndex,
+                        FollowGraphIndex followGraphIndex) {
+        this.adminUsernames = adminUsernames;
+        this.likedPostIndex = likedPostIndex;
+        this.followGraphIndex = followGraphIndex;
+    }
+
+    //관리자 API 는 board.admin.usernames 에 있는 사용자만 쓸 수 있다.
+    public void verifyAdmin(UserPrincipal currentUser) {
+        if (!adminUsernames.contains(currentUser.username())) {
+            throw new UserNotAllowedException();
+        }
+    }
+
+    public IndexConsistency checkLikedPostIndex(UserPrincipal currentUser) {
+        verifyAdmin(currentUser);
+        return likedPostIndex.checkConsistency();
+    }
+
+    public IndexConsistency checkFollowGraphIndex(UserPrincipal currentUser) {
+        verifyAdmin(currentUser);
+        return followGraphIndex.checkConsistency();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.board.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//메모리 인덱스처럼 DB 밖에 있는 상태는 트랜잭션이 커밋된 뒤에 바꾼다. (롤백되면 실행하지 않음)
+//트랜잭션 밖에서 부르면 바로 실행한다.
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.board.service;
+
+import com.example.board.model.pagination.Cursor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+//이미 최신순으로 정렬된 여러 게시물 키 목록을 하나로 합친다. (k-way merge)
+//힙에는 목록마다 맨 앞 키 하나씩만 들어가기 때문에 limit 개를 뽑는 비용은 O(limit * log k)
+final class FeedMerger {
+
+    static final Comparator<Cursor> NEWEST_FIRST = Comparator
+            .comparing((Cursor key) -> key.createdDateTime().toInstant())
+            .thenComparing(Cursor::id)
+            .reversed();
+
+    private FeedMerger() {
+    }
+
+    //합친 키를 최신순으로 limit 개까지 (마지막 키는 다음에 이어서 합칠 cursor 로 쓴다)
+    static List<Cursor> merge(List<List<Cursor>> sources, int limit) {
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> NEWEST_FIRST.compare(a.key, b.key));
+        for (List<Cursor> source : sources) {
+            Iterator<Cursor> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heap.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+        //같은 게시물이 push(타임라인)와 pull 양쪽에 있을 수 있어서 중복은 한번만 넣는다.
+        Set<Long> postIds = new HashSet<>();
+        List<Cursor> keys = new ArrayList<>(limit);
+        while (!heap.isEmpty() && keys.size() < limit) {
+            Head head = heap.poll();
+            if (postIds.add(head.key.id())) {
+                keys.add(head.key);
+            }
+            if (head.rest.hasNext()) {
+                head.key = head.rest.next();
+                heap.add(head);
+            }
+        }
+        return keys;
+    }
+
+    private static final class Head {
+        private Cursor key;
+        private final Iterator<Cursor> rest;
+
+        private Head(Cursor key, Iterator<Cursor> rest) {
+            this.key = key;
+            this.rest = rest;
+        }
+    }
+}
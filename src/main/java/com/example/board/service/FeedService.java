@@ -0,0 +1,359 @@
+package com.example.board.service;
+
+import com.example.board.event.FollowCreatedEvent;
+import com.example.board.event.FollowDeletedEvent;
+import com.example.board.event.PostCreatedEvent;
+import com.example.board.model.pagination.Cursor;
+import com.example.board.model.post.Post;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.FollowEntityRepository;
+import com.example.board.repository.PostEntityRepository;
+import com.example.board.repository.TimelineEntityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+홈 타임라인 (push / pull 하이브리드)
+
+- push (fan-out on write): 팔로워가 celebrity-threshold 명 미만인 작성자
+  게시물 작성/팔로우/언팔로우가 커밋된 뒤에 이벤트를 받아서 feedFanoutExecutor 스레드에서 타임라인 테이블을 갱신한다.
+  그래서 요청 스레드는 팔로워 수와 상관없이 바로 응답하고, 피드 조회는 timeline 인덱스 범위 스캔 한번으로 끝난다.
+- pull (fan-out on read): 팔로워가 celebrity-threshold 명 이상인 작성자
+  수십만 팔로워에게 한 줄씩 쓰는 대신, 피드를 읽을때 그 작성자의 최근 게시물 키를 가져와서 타임라인과 합친다. (k-way merge)
+  작성자별 최근 키 목록은 celebrity-cache-ttl-millis 동안 캐시해서 읽을때마다 조회하지 않는다.
+  → 게시물 하나당 쓰기 양이 최대 threshold 줄로 제한된다.
+
+@TransactionalEventListener(fallbackExecution = true): 트랜잭션이 있으면 커밋 후에, 없으면 바로 실행
+리스너는 작업을 feedFanoutExecutor 에 넣기만 한다. 스레드풀이 가득 차서 거절되면 요청 스레드에서 대신 돌리지 않고
+pending_fanout 테이블에 한 줄 남긴 뒤(메트릭 board.feed.fanout.rejected, kind=post/follow/unfollow) 바로 돌아가고,
+retryPending 이 pending-retry-interval-millis 마다 꺼내서 다시 넣는다. (작업은 모두 여러번 실행돼도 결과가 같다)
+ */
+@Slf4j
+@Service
+public class FeedService {
+
+    private static final String INSERT_TIMELINE_SQL =
+            "INSERT INTO timeline (userid, postid, authorid, createddatetime) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String BACKFILL_TIMELINE_SQL = """
+            INSERT INTO timeline (userid, postid, authorid, createddatetime)
+            SELECT ?, postid, userid, createddatetime FROM post
+            WHERE userid = ? AND deleteddatetime IS NULL
+            ORDER BY createddatetime DESC
+            LIMIT ?
+            ON CONFLICT DO NOTHING""";
+
+    private static final String PRUNE_TIMELINE_SQL = "DELETE FROM timeline WHERE userid = ? AND authorid = ?";
+
+    private static final String INSERT_PENDING_SQL =
+            "INSERT INTO pending_fanout (kind, postid, followerid, followingid, followerscount, createddatetime) VALUES (?, ?, ?, ?, ?, ?)";
+
+    //서버가 여러대여도 같은 줄을 두번 꺼내지 않게, 잠근 줄만 지우면서 가져온다.
+    private static final String CLAIM_PENDING_SQL = """
+            DELETE FROM pending_fanout WHERE pendingfanoutid IN (
+                SELECT pendingfanoutid FROM pending_fanout ORDER BY pendingfanoutid LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING kind, postid, followerid, followingid, followerscount, createddatetime""";
+
+    private static final String KIND_POST = "post";
+    private static final String KIND_FOLLOW = "follow";
+    private static final String KIND_UNFOLLOW = "unfollow";
+
+    private static final RowMapper<PendingFanout> PENDING_FANOUT_ROW_MAPPER = (rs, rowNum) -> {
+        OffsetDateTime createdDateTime = rs.getObject("createddatetime", OffsetDateTime.class);
+        return new PendingFanout(
+                rs.getString("kind"),
+                rs.getObject("postid", Long.class),
+                rs.getObject("followerid", Long.class),
+                rs.getLong("followingid"),
+                rs.getObject("followerscount", Long.class),
+                createdDateTime == null ? null : createdDateTime.toZonedDateTime());
+    };
+
+    private final TimelineEntityRepository timelineEntityRepository;
+    private final FollowEntityRepository followEntityRepository;
+    private final PostEntityRepository postEntityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AsyncTaskExecutor feedFanoutExecutor;
+    private final TransactionTemplate requiresNewTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int fanoutBatchSize;
+    private final int backfillSize;
+    private final long celebrityThreshold;
+    private final int celebrityRecentPosts;
+    private final long celebrityCacheTtlMillis;
+
+    //pull 대상 작성자의 최근 게시물 키 캐시 (작성자 아이디 → 키 목록)
+    private final Map<Long, RecentPostKeys> recentPostKeysByAuthor = new ConcurrentHashMap<>();
+
+    public FeedService(TimelineEntityRepository timelineEntityRepository,
+                       FollowEntityRepository followEntityRepository,
+                       PostEntityRepository postEntityRepository,
+                       JdbcTemplate jdbcTemplate,
+                       @Qualifier("feedFanoutExecutor") AsyncTaskExecutor feedFanoutExecutor,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${board.feed.fanout-batch-size:1000}") int fanoutBatchSize,
+                       @Value("${board.feed.backfill-size:100}") int backfillSize,
+                       @Value("${board.feed.celebrity-threshold:10000}") long celebrityThreshold,
+                       @Value("${board.feed.celebrity-recent-posts:200}") int celebrityRecentPosts,
+                       @Value("${board.feed.celebrity-cache-ttl-millis:10000}") long celebrityCacheTtlMillis) {
+        this.timelineEntityRepository = timelineEntityRepository;
+        this.followEntityRepository = followEntityRepository;
+        this.postEntityRepository = postEntityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.feedFanoutExecutor = feedFanoutExecutor;
+        //커밋 후 리스너에서는 끝난 트랜잭션의 커넥션이 아직 묶여 있어서, pending 저장은 새 트랜잭션으로 커밋한다.
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.fanoutBatchSize = fanoutBatchSize;
+        this.backfillSize = backfillSize;
+        this.celebrityThreshold = celebrityThreshold;
+        this.celebrityRecentPosts = celebrityRecentPosts;
+        this.celebrityCacheTtlMillis = celebrityCacheTtlMillis;
+    }
+
+    //내 타임라인에서 cursor 이후 게시물 limit 개
+    public List<Post> getTimeline(UserPrincipal currentUser, Cursor cursor, int limit) {
+        Long currentUserId = currentUser.userId();
+        List<Post> pushed = cursor == null
+                ? timelineEntityRepository.findLatestPostViews(currentUserId, Limit.of(limit))
+                : timelineEntityRepository.findLatestPostViewsBefore(currentUserId, cursor.createdDateTime(), cursor.id(), Limit.of(limit));
+
+        List<Long> celebrityIds = followEntityRepository.findFollowingIdsWithFollowersCountAtLeast(currentUserId, celebrityThreshold);
+        if (celebrityIds.isEmpty()) {
+            return pushed;
+        }
+
+        //캐시된 pull 키 중에는 TTL 사이에 삭제된 게시물이 있을 수 있다. 빠진 만큼 마지막 키 다음부터 다시 합쳐서 채운다.
+        //(덜 채운 채로 돌려주면 limit + 1 개가 안 돼서 다음 페이지가 없는 것처럼 보임)
+        List<Post> posts = new ArrayList<>(limit);
+        while (true) {
+            int remaining = limit - posts.size();
+            List<Cursor> keys = mergeTimeline(pushed, celebrityIds, cursor, remaining);
+            posts.addAll(findPosts(keys, pushed));
+            if (posts.size() >= limit || keys.size() < remaining) { //다 채웠거나 더 가져올 게시물이 없음
+                return posts;
+            }
+            cursor = keys.get(keys.size() - 1);
+            pushed = timelineEntityRepository.findLatestPostViewsBefore(currentUserId, cursor.createdDateTime(), cursor.id(), Limit.of(limit - posts.size()));
+        }
+    }
+
+    private List<Cursor> mergeTimeline(List<Post> pushed, List<Long> celebrityIds, Cursor cursor, int limit) {
+        List<List<Cursor>> sources = new ArrayList<>(celebrityIds.size() + 1);
+        sources.add(pushed.stream().map(post -> new Cursor(post.createdDateTime(), post.postId())).toList());
+        for (Long celebrityId : celebrityIds) {
+            sources.add(getRecentPostKeys(celebrityId, cursor, limit));
+        }
+        return FeedMerger.merge(sources, limit);
+    }
+
+    //타임라인에서 이미 가져온 게시물은 재사용하고, pull 한 게시물만 한번에 조회한다. (삭제된 게시물은 빠짐)
+    private List<Post> findPosts(List<Cursor> keys, List<Post> pushed) {
+        Map<Long, Post> postById = pushed.stream().collect(Collectors.toMap(Post::postId, Function.identity()));
+        List<Long> missingPostIds = keys.stream().map(Cursor::id).filter(postId -> !postById.containsKey(postId)).toList();
+        if (!missingPostIds.isEmpty()) {
+            postEntityRepository.findViewsByPostIdIn(missingPostIds).forEach(post -> postById.put(post.postId(), post));
+        }
+        return keys.stream().map(key -> postById.get(key.id())).filter(Objects::nonNull).toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        submit(new PendingFanout(KIND_POST, event.postId(), null, event.authorId(), event.authorFollowersCount(), event.createdDateTime()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFollowCreated(FollowCreatedEvent event) {
+        submit(new PendingFanout(KIND_FOLLOW, null, event.followerId(), event.followingId(), event.followingFollowersCount(), null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFollowDeleted(FollowDeletedEvent event) {
+        submit(new PendingFanout(KIND_UNFOLLOW, null, event.followerId(), event.followingId(), event.followingFollowersCount(), null));
+    }
+
+    //거절돼서 쌓인 작업을 fanoutBatchSize 개씩 꺼내서 다시 넣는다. 또 거절되면 남은 것은 되돌려 놓고 다음 주기에 한다.
+    //꺼낸 뒤 실행 전에 서버가 죽으면 그 작업은 잃는다. (스레드풀 큐에 들어 있던 작업과 같음)
+    @Scheduled(fixedDelayString = "${board.feed.pending-retry-interval-millis:5000}")
+    public void retryPending() {
+        while (true) {
+            List<PendingFanout> claimed = jdbcTemplate.query(CLAIM_PENDING_SQL, PENDING_FANOUT_ROW_MAPPER, fanoutBatchSize);
+            for (int i = 0; i < claimed.size(); i++) {
+                if (!submit(claimed.get(i))) {
+                    claimed.subList(i + 1, claimed.size()).forEach(this::savePending);
+                    return;
+                }
+            }
+            if (claimed.size() < fanoutBatchSize) {
+                return;
+            }
+        }
+    }
+
+    private boolean submit(PendingFanout pending) {
+        try {
+            feedFanoutExecutor.execute(() -> {
+                try {
+                    run(pending);
+                } catch (RuntimeException e) {
+                    log.error("fan-out {} failed", pending, e);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            meterRegistry.counter("board.feed.fanout.rejected", "kind", pending.kind()).increment();
+            savePending(pending);
+            return false;
+        }
+    }
+
+    private void savePending(PendingFanout pending) {
+        requiresNewTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT_PENDING_SQL,
+                pending.kind(), pending.postId(), pending.followerId(), pending.followingId(), pending.followersCount(),
+                pending.createdDateTime() == null ? null : pending.createdDateTime().toOffsetDateTime()));
+    }
+
+    private void run(PendingFanout pending) {
+        switch (pending.kind()) {
+            case KIND_POST -> fanOutPost(new PostCreatedEvent(pending.postId(), pending.followingId(), pending.followersCount(), pending.createdDateTime()));
+            case KIND_FOLLOW -> backfillFollower(new FollowCreatedEvent(pending.followerId(), pending.followingId(), pending.followersCount()));
+            case KIND_UNFOLLOW -> pruneFollower(new FollowDeletedEvent(pending.followerId(), pending.followingId(), pending.followersCount()));
+            default -> log.warn("unknown pending fan-out kind {}", pending.kind());
+        }
+    }
+
+    //작성자 본인 + 팔로워들의 타임라인에 게시물을 넣는다. 팔로워는 fanoutBatchSize 명씩 끊어서 배치 INSERT
+    private void fanOutPost(PostCreatedEvent event) {
+        insertTimelineRows(List.of(event.authorId()), event);
+
+        if (isCelebrity(event.authorFollowersCount())) {
+            //팔로워에게 쓰지 않고 읽을때 pull 한다. 캐시만 비워서 새 게시물이 바로 보이게 한다.
+            recentPostKeysByAuthor.remove(event.authorId());
+            return;
+        }
+
+        Long afterFollowerId = 0L;
+        int fanoutCount = 0;
+        while (true) {
+            List<Long> followerIds = followEntityRepository.findFollowerIds(event.authorId(), afterFollowerId, Limit.of(fanoutBatchSize));
+            if (followerIds.isEmpty()) {
+                break;
+            }
+            insertTimelineRows(followerIds, event);
+            fanoutCount += followerIds.size();
+            if (followerIds.size() < fanoutBatchSize) {
+                break;
+            }
+            afterFollowerId = followerIds.get(followerIds.size() - 1);
+        }
+        log.debug("post {} fanned out to {} followers", event.postId(), fanoutCount);
+    }
+
+    private void backfillFollower(FollowCreatedEvent event) {
+        if (isCelebrity(event.followingFollowersCount())) {
+            return;
+        }
+        jdbcTemplate.update(BACKFILL_TIMELINE_SQL, event.followerId(), event.followingId(), backfillSize);
+    }
+
+    private void pruneFollower(FollowDeletedEvent event) {
+        jdbcTemplate.update(PRUNE_TIMELINE_SQL, event.followerId(), event.followingId());
+
+        //이 언팔로우로 pull 대상에서 push 대상으로 내려왔으면, pull 로만 보이던 게시물(push 되지 않은 게시물, 그동안 새로 팔로우한 사람)이
+        //피드에서 사라지지 않도록 남은 팔로워 전원의 타임라인에 최근 게시물을 채워 넣는다.
+        //(반대로 pull 대상이 될때는 이미 push 된 행이 남아 있고 pull 과 중복은 merge 에서 빠지므로 할 일이 없다.)
+        if (event.droppedBelow(celebrityThreshold)) {
+            backfillAllFollowers(event.followingId());
+        }
+    }
+
+    private void backfillAllFollowers(Long authorId) {
+        recentPostKeysByAuthor.remove(authorId);
+        Long afterFollowerId = 0L;
+        int backfillCount = 0;
+        while (true) {
+            List<Long> followerIds = followEntityRepository.findFollowerIds(authorId, afterFollowerId, Limit.of(fanoutBatchSize));
+            if (followerIds.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(BACKFILL_TIMELINE_SQL, followerIds, fanoutBatchSize, (ps, followerId) -> {
+                ps.setLong(1, followerId);
+                ps.setLong(2, authorId);
+                ps.setInt(3, backfillSize);
+            });
+            backfillCount += followerIds.size();
+            if (followerIds.size() < fanoutBatchSize) {
+                break;
+            }
+            afterFollowerId = followerIds.get(followerIds.size() - 1);
+        }
+        log.debug("author {} dropped below celebrity threshold, backfilled {} followers", authorId, backfillCount);
+    }
+
+    private boolean isCelebrity(Long followersCount) {
+        return followersCount != null && followersCount >= celebrityThreshold;
+    }
+
+    //캐시된 최근 키 목록에서 cursor 이후 키를 꺼낸다.
+    //캐시 범위(celebrityRecentPosts 개)를 넘어가는 깊은 페이지는 DB 에서 바로 가져온다.
+    private List<Cursor> getRecentPostKeys(Long authorId, Cursor cursor, int limit) {
+        long now = System.currentTimeMillis();
+        RecentPostKeys cached = recentPostKeysByAuthor.get(authorId);
+        if (cached == null || cached.expiresAt() < now) {
+            cached = new RecentPostKeys(
+                    postEntityRepository.findLatestKeysByUserId(authorId, Limit.of(celebrityRecentPosts)),
+                    now + celebrityCacheTtlMillis);
+            recentPostKeysByAuthor.put(authorId, cached);
+        }
+
+        List<Cursor> keys = cursor == null
+                ? cached.keys()
+                : cached.keys().stream().filter(key -> FeedMerger.NEWEST_FIRST.compare(key, cursor) > 0).toList();
+        boolean truncated = cached.keys().size() >= celebrityRecentPosts;
+        if (keys.size() < limit && truncated && cursor != null) {
+            return postEntityRepository.findLatestKeysByUserIdBefore(authorId, cursor.createdDateTime(), cursor.id(), Limit.of(limit));
+        }
+        return keys.size() > limit ? keys.subList(0, limit) : keys;
+    }
+
+    private void insertTimelineRows(List<Long> userIds, PostCreatedEvent event) {
+        jdbcTemplate.batchUpdate(INSERT_TIMELINE_SQL, userIds, fanoutBatchSize, (ps, userId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, event.postId());
+            ps.setLong(3, event.authorId());
+            ps.setObject(4, event.createdDateTime().toOffsetDateTime());
+        });
+    }
+
+    private record RecentPostKeys(List<Cursor> keys, long expiresAt) {
+    }
+
+    //kind 별로 쓰는 값은 PendingFanoutEntity 참고 (post 의 followingId 는 작성자)
+    private record PendingFanout(String kind, Long postId, Long followerId, Long followingId, Long followersCount, ZonedDateTime createdDateTime) {
+    }
+}
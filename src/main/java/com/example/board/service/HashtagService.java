@@ -0,0 +1,93 @@
+package com.example.board.service;
+
+import com.example.board.index.Hashtags;
+import com.example.board.index.TrendingHashtags;
+import com.example.board.model.hashtag.TrendingHashtag;
+import com.example.board.model.pagination.CursorPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+게시물 ↔ 해시태그 (post_hashtag 테이블 + TrendingHashtags)
+
+게시물을 쓰는 쪽(PostService, PostImportService)의 트랜잭션 안에서 불린다. 태그 행은 게시물과 같이 커밋/롤백된다.
+인기 해시태그 카운터는 커밋된 뒤에만 바꾼다.
+ */
+@Service
+@RequiredArgsConstructor
+public class HashtagService {
+
+    private static final int DEFAULT_TRENDING_LIMIT = 10;
+
+    private static final String INSERT_HASHTAG_SQL =
+            "INSERT INTO post_hashtag (tag, postid, createddatetime) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String SELECT_TAGS_SQL = "SELECT tag FROM post_hashtag WHERE postid = ?";
+    private static final String DELETE_TAG_SQL = "DELETE FROM post_hashtag WHERE postid = ? AND tag = ?";
+    private static final String DELETE_TAGS_SQL = "DELETE FROM post_hashtag WHERE postid = ? RETURNING tag";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrendingHashtags trendingHashtags;
+
+    //새 게시물 (지울 태그가 없어서 INSERT 만)
+    public void addHashtags(Long postId, OffsetDateTime createdDateTime, String body) {
+        addHashtags(List.of(TaggedPost.of(postId, createdDateTime, body)));
+    }
+
+    //여러 게시물의 태그를 배치 INSERT 한번으로 넣는다. (대량 가져오기)
+    void addHashtags(List<TaggedPost> posts) {
+        List<Object[]> rows = new ArrayList<>();
+        for (TaggedPost post : posts) {
+            for (String tag : post.tags()) {
+                rows.add(new Object[]{tag, post.postId(), post.createdDateTime()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HASHTAG_SQL, rows);
+        AfterCommit.run(() -> posts.forEach(post -> post.tags().forEach(
+                tag -> trendingHashtags.add(tag, post.createdDateTime().toInstant().toEpochMilli()))));
+    }
+
+    //게시물 수정: 저장된 태그와 비교해서 빠진 태그는 지우고 새 태그만 넣는다. (본문만 고치고 태그가 같으면 SELECT 한번)
+    public void updateHashtags(Long postId, OffsetDateTime createdDateTime, String body) {
+        Set<String> tags = Hashtags.extract(body);
+        Set<String> savedTags = new HashSet<>(jdbcTemplate.queryForList(SELECT_TAGS_SQL, String.class, postId));
+
+        List<String> removedTags = savedTags.stream().filter(tag -> !tags.contains(tag)).toList();
+        if (!removedTags.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_TAG_SQL, removedTags.stream().map(tag -> new Object[]{postId, tag}).toList());
+            AfterCommit.run(() -> removedTags.forEach(tag -> trendingHashtags.remove(tag, createdDateTime.toInstant().toEpochMilli())));
+        }
+
+        tags.removeAll(savedTags);
+        addHashtags(List.of(new TaggedPost(postId, createdDateTime, tags)));
+    }
+
+    //게시물 삭제: 태그 행도 같이 지운다. (지운 태그는 RETURNING 으로 받아서 인기 해시태그에서 뺀다)
+    public void deleteHashtags(Long postId, OffsetDateTime createdDateTime) {
+        List<String> removedTags = jdbcTemplate.queryForList(DELETE_TAGS_SQL, String.class, postId);
+        if (!removedTags.isEmpty()) {
+            AfterCommit.run(() -> removedTags.forEach(tag -> trendingHashtags.remove(tag, createdDateTime.toInstant().toEpochMilli())));
+        }
+    }
+
+    public List<TrendingHashtag> getTrendingHashtags(Integer limit) {
+        int size = limit == null ? DEFAULT_TRENDING_LIMIT : CursorPage.normalizeLimit(limit);
+        return trendingHashtags.top(size);
+    }
+
+    record TaggedPost(Long postId, OffsetDateTime createdDateTime, Set<String> tags) {
+
+        static TaggedPost of(Long postId, OffsetDateTime createdDateTime, String body) {
+            return new TaggedPost(postId, createdDateTime, Hashtags.extract(body));
+        }
+    }
+}
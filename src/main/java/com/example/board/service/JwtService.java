@@ -1,14 +1,29 @@
 package com.example.board.service;
 
-import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 @Slf4j
 @Service
@@ -16,42 +31,105 @@ public class JwtService {
 
     private static final SecretKey key = Jwts.SIG.HS256.key().build();
 
-    //accessToken을 발급해주는 메소드
-    public String generateAccessToken(UserDetails userDetails) {
-        return generateToken(userDetails.getUsername());
+    //토큰에 같이 넣는 유저 id 클레임 (subject 는 username)
+    private static final String USER_ID_CLAIM = "uid";
+
+    //JwtParser 는 불변이고 thread-safe 라서 한번만 만들어서 모든 요청이 같이 쓴다.
+    //만료 검사도 캐시와 같은 시계(clock)를 쓴다.
+    private final JwtParser parser;
+
+    //현재 시각 (밀리초). 테스트에서는 시계를 바꿔서 만료를 확인한다.
+    private final LongSupplier clock;
+
+    /*
+    검증된 토큰 캐시 (토큰의 SHA-256 → subject, 만료 시각)
+    같은 토큰으로 계속 요청하면 Base64 디코딩 + JSON 파싱 + HMAC 검증을 다시 하지 않는다.
+    - 항목은 토큰이 만료되는 순간 캐시에서도 빠진다. (Expiry)
+    - 토큰 원문 대신 digest 를 키로 써서 메모리에 토큰이 남지 않게 한다.
+    - 검증에 실패한 토큰은 넣지 않는다.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    private record VerifiedToken(UserPrincipal principal, long expiresAtMillis) {
+    }
+
+    @Autowired
+    public JwtService(MeterRegistry meterRegistry,
+                      @Value("${board.jwt.verified-token-cache-size:10000}") long verifiedTokenCacheSize) {
+        this(meterRegistry, verifiedTokenCacheSize, System::currentTimeMillis);
+    }
+
+    JwtService(MeterRegistry meterRegistry, long verifiedTokenCacheSize, LongSupplier clock) {
+        this.clock = clock;
+        this.parser = Jwts.parser().verifyWith(key).clock(() -> new Date(clock.getAsLong())).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(Expiry.<String, VerifiedToken>creating(
+                        (digest, token) -> Duration.ofMillis(Math.max(0, token.expiresAtMillis() - clock.getAsLong()))))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
     }
 
-    //accessToken으로 subject를 추출하는 메소드
-    public String getUsername(String accessToken) {
-        return getSubject(accessToken);
+    //accessToken을 발급해주는 메소드 (subject = username, uid = userId)
+    public String generateAccessToken(UserPrincipal principal) {
+        return generateToken(principal.username(), principal.userId());
+    }
 
+    //accessToken으로 username 과 userId 를 추출하는 메소드
+    //uid 클레임이 없는 토큰(이전에 발급된 토큰)이면 userId 는 null
+    public UserPrincipal getPrincipal(String accessToken) {
+        return verify(accessToken);
     }
 
-    private String generateToken(String subject) {
-        Date now = new Date();
+    private String generateToken(String subject, Long userId) {
+        Date now = new Date(clock.getAsLong());
         Date exp = new Date(now.getTime() + (1000 * 60 * 60 * 3)); //3시간
 
         return Jwts.builder()
                 .subject(subject)
+                .claim(USER_ID_CLAIM, userId)
                 .signWith(key)
                 .issuedAt(now)
                 .expiration(exp)
                 .compact(); //발생시점.expiration(exp) //만료시점.compact();
     }
 
-    private String getSubject(String token) {
+    private UserPrincipal verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        //캐시 만료는 정확한 시각에 일어나지 않을 수 있어서 만료 시각을 한번 더 본다.
+        if (cached != null && cached.expiresAtMillis() > clock.getAsLong()) {
+            return cached.principal();
+        }
 
         try {
-            String subject = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getSubject();
-            return subject;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            UserPrincipal principal = new UserPrincipal(claims.get(USER_ID_CLAIM, Long.class), claims.getSubject());
+            //만료 시각이 없는 토큰은 캐시하지 않는다. (이 서비스가 발급하는 토큰에는 항상 있음)
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, new VerifiedToken(principal, claims.getExpiration().getTime()));
+            }
+            return principal;
         } catch (JwtException e) {
             log.error("JwtException", e);
             throw e;
         }
     }
+
+    //캐시에 남아 있는 검증된 토큰 수 (만료된 항목을 먼저 정리한다. 테스트/진단용)
+    long verifiedTokenCount() {
+        verifiedTokens.cleanUp();
+        return verifiedTokens.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
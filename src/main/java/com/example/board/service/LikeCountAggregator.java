@@ -0,0 +1,144 @@
+package com.example.board.service;
+
+import com.example.board.cache.PostSnapshotCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/*
+좋아요 수 write-behind 집계기
+
+좋아요/취소 할때마다 post 행을 읽고 +1/-1 해서 저장하면, 인기 게시물은 같은 행에 쓰기가 몰리고 동시에 누르면 값이 유실된다.
+대신 게시물별 증감(delta)을 메모리에 모아 두었다가 flush-interval-millis 마다 한번에
+UPDATE post SET likeCount = GREATEST(likeCount + ?, 0) 배치로 반영한다. (DB 에서 더하기 때문에 유실 없음)
+
+- 게시물별 delta 는 ConcurrentHashMap.merge 로 더한다. (버킷 단위로 잠금이 나뉘어서 다른 게시물끼리는 경합하지 않음)
+- flush 는 remove 로 꺼내기 때문에 더하는 중인 값과 섞이지 않는다. (꺼낸 뒤 들어온 값은 다음 flush 로)
+- 서버가 죽으면 아직 flush 안 된 delta 만 잃는다: 최대 flush-interval-millis 동안의 값,
+  그리고 max-pending-operations 개가 쌓이면 주기를 기다리지 않고 스케줄러 스레드에 바로 flush 를 맡긴다. (좋아요 요청 스레드는 기다리지 않음)
+- 배치 하나는 트랜잭션 하나로 반영한다. 중간에 실패하면 아무것도 반영되지 않으므로 꺼낸 delta 를 다시 넣어서 다음 flush 때 재시도한다.
+  단, UPDATE 는 끝났는데 COMMIT 에서 실패하면(커넥션 끊김 등) 반영됐는지 알 수 없다.
+  다시 넣으면 두번 더해질 수 있어서 이 경우는 재시도하지 않고 로그만 남긴다. (좋아요 수가 그만큼 어긋날 수 있고, like 테이블로 다시 셀 수 있음)
+- 정상 종료할때는 @PreDestroy 에서 남은 값을 flush 한다.
+ */
+@Slf4j
+@Component
+public class LikeCountAggregator {
+
+    private static final String FLUSH_SQL = "UPDATE post SET likeCount = GREATEST(likeCount + ?, 0) WHERE postId = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final PostSnapshotCache postSnapshotCache;
+    private final long maxPendingOperations;
+
+    private final ConcurrentHashMap<Long, Long> pendingDeltas = new ConcurrentHashMap<>();
+    private final AtomicLong pendingOperations = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public LikeCountAggregator(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               TaskScheduler taskScheduler,
+                               PostSnapshotCache postSnapshotCache,
+                               @Value("${board.like-count.max-pending-operations:10000}") long maxPendingOperations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.postSnapshotCache = postSnapshotCache;
+        this.maxPendingOperations = maxPendingOperations;
+    }
+
+    //좋아요 +1, 취소 -1
+    public void add(Long postId, long delta) {
+        pendingDeltas.merge(postId, delta, Long::sum);
+        //한도를 넘으면 flush 를 한번만 예약한다. (넘은 뒤 들어오는 요청마다 예약하지 않게)
+        if (pendingOperations.incrementAndGet() >= maxPendingOperations && flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    //아직 DB 에 반영되지 않은 delta (응답에 바로 보여주기 위함)
+    public long getPendingDelta(Long postId) {
+        return pendingDeltas.getOrDefault(postId, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${board.like-count.flush-interval-millis:1000}")
+    public void flush() {
+        //다른 스레드가 flush 중이면 기다리지 않는다. (그 flush 가 지금까지 쌓인 값을 가져감)
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    //종료할때는 진행 중인 flush 를 기다렸다가 남은 값을 모두 반영한다.
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drain() {
+        flushRequested.set(false);
+        pendingOperations.set(0);
+        List<Object[]> batch = new ArrayList<>();
+        for (Long postId : pendingDeltas.keySet()) {
+            Long delta = pendingDeltas.remove(postId);
+            if (delta != null && delta != 0) {
+                batch.add(new Object[]{delta, postId});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        AtomicBoolean updated = new AtomicBoolean();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                updated.set(true);
+            });
+        } catch (RuntimeException e) {
+            if (updated.get()) {
+                //COMMIT 에서 실패: 반영됐는지 알 수 없어서 재시도하지 않는다.
+                log.error("like count flush commit failed, {} post deltas may not be applied: {}", batch.size(), deltasOf(batch), e);
+            } else {
+                //롤백됐으니 delta 를 다시 넣어서 다음 flush 때 재시도한다.
+                batch.forEach(row -> pendingDeltas.merge((Long) row[1], (Long) row[0], Long::sum));
+                log.error("like count flush failed for {} posts", batch.size(), e);
+                return;
+            }
+        }
+        //DB 의 좋아요 수가 바뀌었으니 캐시된 게시물 스냅샷도 지운다.
+        postSnapshotCache.invalidateAll(batch.stream().map(row -> (Long) row[1]).toList());
+    }
+
+    //postId=delta 목록 (수동으로 맞출때 쓰도록 로그에 남김)
+    private static String deltasOf(List<Object[]> batch) {
+        return batch.stream().map(row -> row[1] + "=" + row[0]).collect(Collectors.joining(", "));
+    }
+}
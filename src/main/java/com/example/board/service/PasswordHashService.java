@@ -0,0 +1,81 @@
+package com.example.board.service;
+
+import com.example.board.exception.user.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/*
+BCrypt 해시/검증을 passwordHashExecutor(코어 수 만큼의 스레드 + 제한된 큐)에서 실행한다.
+- 요청 스레드는 결과를 기다리기만 하고, CPU 를 쓰는 해시 계산은 동시에 코어 수 만큼만 돈다.
+- 큐가 가득 차면 기다리지 않고 PasswordHashingUnavailableException(503)
+메트릭: board.password.hash (op=encode/matches, 큐 대기 제외 해시 시간), board.password.hash.queue.depth, board.password.hash.rejected
+ */
+@Service
+public class PasswordHashService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor passwordHashExecutor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashService(BCryptPasswordEncoder passwordEncoder,
+                               @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor passwordHashExecutor,
+                               MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.encodeTimer = Timer.builder("board.password.hash").tag("op", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("board.password.hash").tag("op", "matches").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("board.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("board.password.hash.queue.depth", passwordHashExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    //저장된 해시의 cost 가 지금 설정보다 낮으면 true (로그인 성공 후 다시 해시해서 저장)
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = passwordHashExecutor.submit(task);
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
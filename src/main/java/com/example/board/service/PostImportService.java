@@ -0,0 +1,203 @@
+package com.example.board.service;
+
+import com.example.board.exception.imports.InvalidImportLineException;
+import com.example.board.index.PostSearchIndex;
+import com.example.board.model.entity.PostEntity;
+import com.example.board.model.entity.ReplyEntity;
+import com.example.board.model.imports.ImportResult;
+import com.example.board.model.imports.PostImportLine;
+import com.example.board.model.imports.ReplyImportLine;
+import com.example.board.model.user.UserKey;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.UserEntityRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+게시물/댓글 대량 가져오기 (예전 포럼 이전용, 관리자만)
+
+- NDJSON 을 MappingIterator 로 한 줄씩 읽는다. 요청 본문 전체를 메모리에 올리지 않는다.
+- chunk-size 행(게시물 + 댓글)이 모이면 트랜잭션 하나로 JDBC 배치 INSERT 하고 커밋한다.
+  메모리에는 청크 하나만 있다. (JPA 엔티티를 만들지 않아서 영속성 컨텍스트도 커지지 않음)
+- id 는 엔티티와 같은 시퀀스에서 SequenceIdAllocator 로 미리 받아서 채운다.
+  그래서 게시물 id 를 INSERT 전에 알고 댓글의 postid 를 바로 넣을 수 있다.
+- 중간에 잘못된 줄이 나오면 400 으로 끝난다. 그 앞의 청크들은 이미 커밋되어 있다.
+- 가져온 게시물은 팔로워 타임라인에 fan-out 하지 않는다. (이전 데이터이므로)
+- 해시태그 행은 같은 청크 트랜잭션에서 배치 INSERT 한다. (작성 시간이 오래됐으면 인기 해시태그에는 안 들어감)
+ */
+@Slf4j
+@Service
+public class PostImportService {
+
+    private static final String INSERT_POST_SQL =
+            "INSERT INTO post (postid, body, repliescount, likecount, createddatetime, updateddatetime, userid) VALUES (?, ?, ?, 0, ?, ?, ?)";
+    private static final String INSERT_REPLY_SQL =
+            "INSERT INTO reply (replyid, body, createddatetime, updateddatetime, userid, postid) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEntityRepository userEntityRepository;
+    private final ObjectReader lineReader;
+    private final AdminService adminService;
+    private final PostSearchIndex postSearchIndex;
+    private final HashtagService hashtagService;
+    private final int chunkSize;
+
+    public PostImportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            UserEntityRepository userEntityRepository,
+            ObjectMapper objectMapper,
+            AdminService adminService,
+            PostSearchIndex postSearchIndex,
+            HashtagService hashtagService,
+            @Value("${board.import.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userEntityRepository = userEntityRepository;
+        this.lineReader = objectMapper.readerFor(PostImportLine.class);
+        this.adminService = adminService;
+        this.postSearchIndex = postSearchIndex;
+        this.hashtagService = hashtagService;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResult importPosts(InputStream inputStream, UserPrincipal currentUser) throws IOException {
+        adminService.verifyAdmin(currentUser);
+
+        long startedAt = System.nanoTime();
+        Progress progress = new Progress();
+        SequenceIdAllocator postIds = new SequenceIdAllocator(jdbcTemplate, PostEntity.ID_SEQUENCE, PostEntity.ID_ALLOCATION_SIZE);
+        SequenceIdAllocator replyIds = new SequenceIdAllocator(jdbcTemplate, ReplyEntity.ID_SEQUENCE, ReplyEntity.ID_ALLOCATION_SIZE);
+
+        List<PostImportLine> chunk = new ArrayList<>();
+        int chunkRows = 0;
+        try (MappingIterator<PostImportLine> lines = lineReader.readValues(inputStream)) {
+            while (lines.hasNextValue()) {
+                PostImportLine line = lines.nextValue();
+                chunk.add(line);
+                chunkRows += 1 + (line.replies() == null ? 0 : line.replies().size());
+                if (chunkRows >= chunkSize) {
+                    writeChunk(chunk, postIds, replyIds, progress);
+                    logProgress(progress, startedAt);
+                    chunk.clear();
+                    chunkRows = 0;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportLineException(e.getLocation() == null ? -1 : e.getLocation().getLineNr(), progress.posts);
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, postIds, replyIds, progress);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        long rows = progress.posts + progress.replies;
+        log.info("Imported {} posts and {} replies in {} ms ({} rows/s, {} skipped)",
+                progress.posts, progress.replies, elapsedMillis, rows * 1000 / elapsedMillis, progress.skipped);
+        return new ImportResult(progress.posts, progress.replies, progress.skipped, progress.chunks, elapsedMillis, rows * 1000 / elapsedMillis);
+    }
+
+    private void writeChunk(List<PostImportLine> chunk, SequenceIdAllocator postIds, SequenceIdAllocator replyIds, Progress progress) {
+        transactionTemplate.executeWithoutResult(status -> {
+            //청크의 작성자들을 쿼리 한번으로 찾는다.
+            Set<String> usernames = new HashSet<>();
+            long replyLines = 0;
+            for (PostImportLine line : chunk) {
+                usernames.add(line.username());
+                for (ReplyImportLine reply : repliesOf(line)) {
+                    usernames.add(reply.username());
+                    replyLines++;
+                }
+            }
+            usernames.remove(null);
+            Map<String, Long> userIds = userEntityRepository.findUserKeysByUsernameIn(usernames).stream()
+                    .collect(Collectors.toMap(UserKey::username, UserKey::userId));
+
+            postIds.reserve(chunk.size());
+            replyIds.reserve(replyLines);
+
+            OffsetDateTime now = OffsetDateTime.now();
+            List<Object[]> postRows = new ArrayList<>(chunk.size());
+            List<Object[]> replyRows = new ArrayList<>();
+            List<HashtagService.TaggedPost> taggedPosts = new ArrayList<>(chunk.size());
+            long skipped = 0;
+            for (PostImportLine line : chunk) {
+                Long authorId = userIds.get(line.username());
+                if (authorId == null || isBlank(line.body())) {
+                    skipped += 1 + repliesOf(line).size();
+                    continue;
+                }
+
+                long postId = postIds.nextId();
+                long repliesCount = 0;
+                for (ReplyImportLine reply : repliesOf(line)) {
+                    Long replyAuthorId = userIds.get(reply.username());
+                    if (replyAuthorId == null || isBlank(reply.body())) {
+                        skipped++;
+                        continue;
+                    }
+                    OffsetDateTime replyCreatedDateTime = toOffsetDateTime(reply.createdDateTime(), now);
+                    replyRows.add(new Object[]{replyIds.nextId(), reply.body(), replyCreatedDateTime, replyCreatedDateTime, replyAuthorId, postId});
+                    repliesCount++;
+                }
+
+                OffsetDateTime createdDateTime = toOffsetDateTime(line.createdDateTime(), now);
+                postRows.add(new Object[]{postId, line.body(), repliesCount, createdDateTime, createdDateTime, authorId});
+                taggedPosts.add(HashtagService.TaggedPost.of(postId, createdDateTime, line.body()));
+            }
+
+            //댓글이 게시물을 참조하기 때문에 게시물 먼저
+            jdbcTemplate.batchUpdate(INSERT_POST_SQL, postRows);
+            jdbcTemplate.batchUpdate(INSERT_REPLY_SQL, replyRows);
+            hashtagService.addHashtags(taggedPosts);
+            //청크가 커밋되면 검색 인덱스에 넣는다.
+            AfterCommit.run(() -> postRows.forEach(row -> postSearchIndex.add((Long) row[0], (String) row[1])));
+
+            progress.posts += postRows.size();
+            progress.replies += replyRows.size();
+            progress.skipped += skipped;
+            progress.chunks++;
+        });
+    }
+
+    private void logProgress(Progress progress, long startedAt) {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        log.info("Import chunk {}: {} posts, {} replies so far ({} rows/s)",
+                progress.chunks, progress.posts, progress.replies, (progress.posts + progress.replies) * 1000 / elapsedMillis);
+    }
+
+    private static List<ReplyImportLine> repliesOf(PostImportLine line) {
+        return line.replies() == null ? List.of() : line.replies();
+    }
+
+    private static boolean isBlank(String body) {
+        return body == null || body.isBlank();
+    }
+
+    private static OffsetDateTime toOffsetDateTime(ZonedDateTime dateTime, OffsetDateTime defaultValue) {
+        return dateTime == null ? defaultValue : dateTime.toOffsetDateTime();
+    }
+
+    //트랜잭션 콜백 안에서 더하기 때문에 필드로 둔다. (한 요청 안에서만 쓰임)
+    private static class Progress {
+        private long posts;
+        private long replies;
+        private long skipped;
+        private long chunks;
+    }
+}
@@ -1,23 +1,41 @@
 package com.example.board.service;
 
+import com.example.board.cache.PostSnapshotCache;
+import com.example.board.cache.ResourceVersions;
+import com.example.board.event.PostCreatedEvent;
 import com.example.board.exception.post.PostNotFoundException;
 import com.example.board.exception.user.UserNotAllowedException;
 import com.example.board.exception.user.UserNotFoundException;
-import com.example.board.model.entity.LikeEntity;
+import com.example.board.index.Hashtags;
+import com.example.board.index.LikedPostIndex;
+import com.example.board.index.PostSearchIndex;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.Cursor;
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.LikeResult;
 import com.example.board.model.post.Post;
 import com.example.board.model.post.PostPatchRequestBody;
 import com.example.board.model.post.PostPostRequestBody;
+import com.example.board.model.user.User;
+import com.example.board.model.user.UserPrincipal;
 import com.example.board.model.entity.PostEntity;
 import com.example.board.repository.LikeEntityRepository;
 import com.example.board.repository.PostEntityRepository;
+import com.example.board.repository.PostHashtagEntityRepository;
 import com.example.board.repository.UserEntityRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,85 +44,232 @@ public class PostService {
     private final PostEntityRepository postEntityRepository;
     private final UserEntityRepository userEntityRepository;
     private final LikeEntityRepository likeEntityRepository;
+    private final PostHashtagEntityRepository postHashtagEntityRepository;
+    private final FeedService feedService;
+    private final HashtagService hashtagService;
+    private final LikeCountAggregator likeCountAggregator;
+    private final LikedPostIndex likedPostIndex;
+    private final PostSnapshotCache postSnapshotCache;
+    private final PostSearchIndex postSearchIndex;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
-    //반복되는 작업을 메소드로 따로 빼줬음
-    private Post getPostWithLikingStatus(PostEntity postEntity, UserEntity currentUser) {
-        boolean isLiking = likeEntityRepository.findByUserAndPost(currentUser, postEntity).isPresent();
-
-        return Post.from(postEntity, isLiking);
-    }
+    //전체 게시물을 한번에 가져오지 않고 최신순으로 limit 개씩 잘라서 내려준다.
+    //읽기 전용 경로는 엔티티 대신 Post 프로젝션으로 바로 조회한다. (작성자 포함 쿼리 1번, 좋아요 여부는 메모리 인덱스)
+    public CursorPage<Post> getPosts(String next, Integer limit, UserPrincipal currentUser) {
+        Cursor cursor = Cursor.decode(next);
+        int size = CursorPage.normalizeLimit(limit);
 
+        List<Post> posts = cursor == null
+                ? postEntityRepository.findLatestViews(Limit.of(size + 1))
+                : postEntityRepository.findLatestViewsBefore(cursor.createdDateTime(), cursor.id(), Limit.of(size + 1));
 
-    public List<Post> getPosts(UserEntity currentUser) {
-        List<PostEntity> postEntityList = postEntityRepository.findAll();
+        return toPostPage(withLikeStatus(posts, currentUser), size);
+    }
 
-        List<Post> list = postEntityList
-                .stream()
-                .map(postEntity -> getPostWithLikingStatus(postEntity, currentUser))
-                .toList();
-        return list;
+    //단건 조회는 PostSnapshotCache 에서 읽고, 좋아요 여부와 아직 flush 안 된 좋아요 수만 요청마다 얹는다.
+    public Post getPostByPostId(Long postId, UserPrincipal currentUser) {
+        Post post = postSnapshotCache.get(postId).orElseThrow(() -> new PostNotFoundException(postId));
+        long likesCount = Math.max(0, post.likesCount() + likeCountAggregator.getPendingDelta(postId));
+        return withLikeStatus(List.of(post.withLikesCount(likesCount)), currentUser).get(0);
     }
 
-    public Post getPostByPostId(Long postId, UserEntity currentUser) {
-        PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
-        return getPostWithLikingStatus(postEntity, currentUser);
+    //단건 조회 ETag: 응답에서 바뀔 수 있는 값(수정 시간, 카운터, 좋아요 여부, 작성자 수정 시간/팔로우 수)으로 만든다.
+    //본문과 작성자 소개가 바뀌면 updatedDateTime 도 바뀐다. getPostByPostId 결과(스냅샷 캐시)에서 꺼내기 때문에 DB 를 다시 읽지 않는다.
+    public String getPostETag(Post post) {
+        User user = post.user();
+        return resourceVersions.etag("post", post.postId(), post.updatedDateTime(), post.repliesCount(), post.likesCount(), post.isLiking(),
+                user.userId(), user.updatedDateTime(), user.followersCount(), user.followingsCount());
     }
 
-    public Post createPost(PostPostRequestBody postPostRequestBody, UserEntity currentUser) {
-        PostEntity postEntity = PostEntity.of(postPostRequestBody.body(), currentUser);
-        PostEntity savedPostEntity = postEntityRepository.save(postEntity);
+    //게시물과 해시태그 행을 한 트랜잭션으로 저장한다. (fan-out 이벤트는 커밋된 뒤에 나간다)
+    @Transactional
+    public Post createPost(PostPostRequestBody postPostRequestBody, UserPrincipal currentUser) {
+        //작성자는 프록시로만 연결한다. 응답(Post.from)과 팔로워 수 때문에 여기서 한번 읽힌다.
+        UserEntity author = userEntityRepository.getReferenceById(currentUser.userId());
+        PostEntity postEntity = PostEntity.of(postPostRequestBody.body(), author);
+        //해시태그는 JDBC 로 넣기 때문에 post 행이 먼저 DB 에 있어야 한다. (외래 키)
+        PostEntity savedPostEntity = postEntityRepository.saveAndFlush(postEntity);
+        hashtagService.addHashtags(savedPostEntity.getPostId(), savedPostEntity.getCreatedDateTime().toOffsetDateTime(), savedPostEntity.getBody());
+        AfterCommit.run(() -> postSearchIndex.add(savedPostEntity.getPostId(), savedPostEntity.getBody()));
+
+        //팔로워 타임라인 fan-out 은 FeedService 가 별도 스레드에서 처리한다.
+        applicationEventPublisher.publishEvent(new PostCreatedEvent(
+                savedPostEntity.getPostId(), currentUser.userId(), author.getFollowersCount(), savedPostEntity.getCreatedDateTime()));
         return Post.from(savedPostEntity);
     }
 
-    public Post updatePost(Long postId, PostPatchRequestBody postPatchRequestBody, UserEntity currentUser) {
+    @Transactional
+    public Post updatePost(Long postId, PostPatchRequestBody postPatchRequestBody, UserPrincipal currentUser) {
         PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
 
-        if (!postEntity.getUser().equals(currentUser)) {
+        if (!postEntity.getUser().getUserId().equals(currentUser.userId())) {
             throw new UserNotAllowedException();
         }
 
-
         postEntity.setBody(postPatchRequestBody.body());
         PostEntity updatedPostEntity = postEntityRepository.save(postEntity);
+        hashtagService.updateHashtags(postId, updatedPostEntity.getCreatedDateTime().toOffsetDateTime(), updatedPostEntity.getBody());
+        AfterCommit.run(() -> {
+            postSnapshotCache.invalidate(postId);
+            postSearchIndex.add(postId, updatedPostEntity.getBody());
+        });
         return Post.from(updatedPostEntity);
     }
 
-    public void deletePost(Long postId, UserEntity currentUser) {
+    @Transactional
+    public void deletePost(Long postId, UserPrincipal currentUser) {
         PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
-        if (!postEntity.getUser().equals(currentUser)) {
+        if (!postEntity.getUser().getUserId().equals(currentUser.userId())) {
             throw new UserNotAllowedException();
         }
         postEntityRepository.delete(postEntity);
+        hashtagService.deleteHashtags(postId, postEntity.getCreatedDateTime().toOffsetDateTime());
+        AfterCommit.run(() -> {
+            postSnapshotCache.invalidate(postId);
+            postSearchIndex.remove(postId);
+            resourceVersions.bump(ResourceVersions.repliesKey(postId));
+        });
+    }
+
+    //본문 검색: PostSearchIndex(메모리)가 BM25 순위로 고른 postId 의 게시물만 DB 에서 읽는다.
+    public List<Post> searchPosts(String query, Integer limit, UserPrincipal currentUser) {
+        int size = CursorPage.normalizeLimit(limit);
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        List<Post> posts;
+        if (postSearchIndex.isReady()) {
+            List<Long> postIds = postSearchIndex.search(query, size);
+            Map<Long, Post> postsById = postIds.isEmpty() ? Map.of() : postEntityRepository.findViewsByPostIdIn(postIds).stream()
+                    .collect(Collectors.toMap(Post::postId, Function.identity()));
+            //IN 조회는 순서를 보장하지 않아서 점수 순서대로 다시 정렬한다.
+            posts = postIds.stream().map(postsById::get).filter(Objects::nonNull).toList();
+        } else {
+            posts = postEntityRepository.findViewsByBodyContaining(query.strip(), Limit.of(size)); //인덱스를 만드는 중
+        }
+        return withLikeStatus(posts, currentUser);
+    }
+
+    //태그별 게시물 (최신순): post_hashtag 인덱스 범위 스캔 + 게시물/작성자 조인 쿼리 한번
+    public CursorPage<Post> getPostsByHashtag(String tag, String next, Integer limit, UserPrincipal currentUser) {
+        Cursor cursor = Cursor.decode(next);
+        int size = CursorPage.normalizeLimit(limit);
+        String normalizedTag = Hashtags.normalize(tag);
+        if (normalizedTag == null) {
+            return toPostPage(List.of(), size);
+        }
+
+        List<Post> posts = cursor == null
+                ? postHashtagEntityRepository.findLatestPostViewsByTag(normalizedTag, Limit.of(size + 1))
+                : postHashtagEntityRepository.findLatestPostViewsByTagBefore(normalizedTag, cursor.createdDateTime(), cursor.id(), Limit.of(size + 1));
+        return toPostPage(withLikeStatus(posts, currentUser), size);
     }
 
-    public List<Post> getPostByUsername(String username,UserEntity currentUser) {
+    public CursorPage<Post> getPostByUsername(String username, String next, Integer limit, UserPrincipal currentUser) {
+
+        Long userId = userEntityRepository.findUserIdByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        return getPostsByUserId(userId, next, limit, currentUser);
+    }
 
-        UserEntity userEntity = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+    //userId 를 이미 아는 경우 (프로필 화면) username 조회 없이 바로
+    public CursorPage<Post> getPostsByUserId(Long userId, String next, Integer limit, UserPrincipal currentUser) {
+        Cursor cursor = Cursor.decode(next);
+        int size = CursorPage.normalizeLimit(limit);
 
-        List<PostEntity> postEntities = postEntityRepository.findByUser(userEntity);
-        List<Post> list = postEntities.stream()
-                .map(postEntity-> getPostWithLikingStatus(postEntity,currentUser))
-                .toList();
-        return list;
+        List<Post> posts = cursor == null
+                ? postEntityRepository.findLatestViewsByUserId(userId, Limit.of(size + 1))
+                : postEntityRepository.findLatestViewsByUserIdBefore(userId, cursor.createdDateTime(), cursor.id(), Limit.of(size + 1));
+        return toPostPage(withLikeStatus(posts, currentUser), size);
+    }
+
+    //내가 팔로우한 유저들의 게시물 (미리 만들어진 타임라인에서 읽는다)
+    public CursorPage<Post> getFeed(String next, Integer limit, UserPrincipal currentUser) {
+        Cursor cursor = Cursor.decode(next);
+        int size = CursorPage.normalizeLimit(limit);
+
+        List<Post> posts = feedService.getTimeline(currentUser, cursor, size + 1);
+        return toPostPage(withLikeStatus(posts, currentUser), size);
+    }
+
+    //좋아요 여부는 LikedPostIndex(메모리)로 채운다. 인덱스를 아직 만드는 중이면 IN 쿼리 한번으로 조회한다.
+    private List<Post> withLikeStatus(List<Post> posts, UserPrincipal currentUser) {
+        if (posts.isEmpty()) {
+            return posts;
+        }
+        List<Long> postIds = posts.stream().map(Post::postId).toList();
+        Set<Long> likedPostIds = likedPostIndex.isReady()
+                ? likedPostIndex.filterLiked(currentUser.userId(), postIds)
+                : new HashSet<>(likeEntityRepository.findLikedPostIds(currentUser.userId(), postIds));
+        return posts.stream().map(post -> post.withIsLiking(likedPostIds.contains(post.postId()))).toList();
+    }
+
+    //limit + 1 개를 조회해서 다음 페이지가 있는지 판단한다.
+    private CursorPage<Post> toPostPage(List<Post> posts, int limit) {
+        return CursorPage.of(posts, limit, post -> new Cursor(post.createdDateTime(), post.postId()));
     }
 
     @Transactional
-    public Post toggleLike(Long postId, UserEntity currentUser) {
+    public Post toggleLike(Long postId, UserPrincipal currentUser) {
 
         PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
 
-        Optional<LikeEntity> likeEntity = likeEntityRepository.findByUserAndPost(currentUser, postEntity);
-        if (likeEntity.isPresent()) {
-            likeEntityRepository.delete(likeEntity.get());
-            postEntity.setLikeCount(Math.max(0, postEntity.getLikeCount() - 1));
-            PostEntity saved = postEntityRepository.save(postEntity);
-            return Post.from(saved, false);
+        //좋아요 수는 post 행을 직접 고치지 않고 LikeCountAggregator 가 모아서 한번에 반영한다.
+        //지워진 행이 없으면 좋아요를 누른다. (동시에 눌러도 ON CONFLICT 로 처리돼서 에러가 나지 않음)
+        boolean isLiking;
+        int delta = 0;
+        if (likeEntityRepository.deleteByUserIdAndPostId(currentUser.userId(), postId) == 1) {
+            delta = -1;
+            isLiking = false;
         } else {
-            LikeEntity newLikeEntity = LikeEntity.of(currentUser, postEntity);
-            likeEntityRepository.save(newLikeEntity);
-            postEntity.setLikeCount(postEntity.getLikeCount() + 1);
-            PostEntity saved = postEntityRepository.save(postEntity);
-            return Post.from(saved, true);
+            if (likeEntityRepository.insertIfAbsent(currentUser.userId(), postId) == 1) {
+                delta = 1;
+            }
+            isLiking = true;
         }
+        applyLikeChange(currentUser.userId(), postId, isLiking, delta);
+
+        //이번 변경은 커밋 뒤에 aggregator 에 들어가므로 응답에는 직접 더한다.
+        long likesCount = Math.max(0, postEntity.getLikeCount() + likeCountAggregator.getPendingDelta(postId) + delta);
+        return Post.from(postEntity, isLiking).withLikesCount(likesCount);
+    }
+
+    //좋아요 (PUT): 쿼리 한번 + 실제로 바뀌었을때만 카운터 증가
+    @Transactional
+    public LikeResult like(Long postId, UserPrincipal currentUser) {
+        boolean changed = likeEntityRepository.insertIfAbsent(currentUser.userId(), postId) == 1;
+        if (!changed && !postEntityRepository.existsById(postId)) { //변경이 없을때만 게시물이 있는지 확인한다.
+            throw new PostNotFoundException(postId);
+        }
+        applyLikeChange(currentUser.userId(), postId, true, changed ? 1 : 0);
+        return new LikeResult(postId, true, changed);
+    }
+
+    //좋아요 취소 (DELETE)
+    @Transactional
+    public LikeResult unlike(Long postId, UserPrincipal currentUser) {
+        boolean changed = likeEntityRepository.deleteByUserIdAndPostId(currentUser.userId(), postId) == 1;
+        if (!changed && !postEntityRepository.existsById(postId)) {
+            throw new PostNotFoundException(postId);
+        }
+        applyLikeChange(currentUser.userId(), postId, false, changed ? -1 : 0);
+        return new LikeResult(postId, false, changed);
+    }
+
+    //롤백된 좋아요가 좋아요 수 delta 나 인덱스에 남지 않도록 커밋된 뒤에 반영한다.
+    //변경이 없었어도(이미 그 상태) 인덱스는 다시 반영해서 인덱스가 DB 와 어긋나 있었다면 맞춰진다.
+    //캐시된 스냅샷의 좋아요 수는 flush 전까지 그대로지만 (단건 조회는 pending delta 를 더해서 보여줌) 같이 지워서 바로 다시 읽게 한다.
+    private void applyLikeChange(Long userId, Long postId, boolean isLiking, int delta) {
+        AfterCommit.run(() -> {
+            if (delta != 0) {
+                likeCountAggregator.add(postId, delta);
+            }
+            if (isLiking) {
+                likedPostIndex.like(userId, postId);
+            } else {
+                likedPostIndex.unlike(userId, postId);
+            }
+            postSnapshotCache.invalidate(postId);
+        });
     }
 }
@@ -0,0 +1,161 @@
+package com.example.board.service;
+
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.Post;
+import com.example.board.model.reply.ReplyView;
+import com.example.board.model.user.Follower;
+import com.example.board.model.user.User;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.model.user.UserProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/*
+프로필 화면 조회: 유저를 한번만 찾고(없으면 404), 나머지 네 가지를 profileExecutor 에서 동시에 가져온다.
+- posts: 게시물 첫 페이지, followers / followings: 미리보기 preview-size 명, replies: 최근 댓글 preview-size 개
+- 모두 같은 마감 시각(시작 + branch-timeout-millis)까지만 기다린다. 응답 시간은 가장 느린 조회 하나 만큼이고 마감을 넘지 않는다.
+- 마감을 넘기거나 실패한 부분, 스레드풀이 가득 차서 거절된 부분은 빈 채로(null) 응답하며, 이름을 unavailable 에 담는다. (화면 일부만 비고 프로필은 뜬다)
+- Future.cancel 은 실행 중인 JDBC 쿼리를 멈추지 못한다. 그래서 부분마다 트랜잭션 안에서 statement_timeout 을 남은 시간으로 걸어서
+  마감을 넘긴 쿼리는 DB 가 취소하고 커넥션이 바로 반환되게 한다.
+메트릭: board.profile.branch (branch=posts/followers/followings/replies, outcome=success/timeout/error/rejected)
+ */
+@Slf4j
+@Service
+public class ProfileService {
+
+    private final UserService userService;
+    private final PostService postService;
+    private final ReplyService replyService;
+    private final AsyncTaskExecutor profileExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long branchTimeoutMillis;
+    private final int previewSize;
+
+    public ProfileService(UserService userService,
+                          PostService postService,
+                          ReplyService replyService,
+                          @Qualifier("profileExecutor") AsyncTaskExecutor profileExecutor,
+                          TransactionTemplate transactionTemplate,
+                          JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${board.profile.branch-timeout-millis:500}") long branchTimeoutMillis,
+                          @Value("${board.profile.preview-size:5}") int previewSize) {
+        this.userService = userService;
+        this.postService = postService;
+        this.replyService = replyService;
+        this.profileExecutor = profileExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.branchTimeoutMillis = branchTimeoutMillis;
+        this.previewSize = previewSize;
+    }
+
+    public UserProfile getProfile(String username, UserPrincipal currentUser) {
+        User user = userService.getUser(username, currentUser);
+        Long userId = user.userId();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(branchTimeoutMillis);
+
+        //전부 먼저 제출하고 나서 기다린다. (하나씩 기다리면 시간이 더해짐)
+        Branch<CursorPage<Post>> posts = submit("posts", deadline, () -> postService.getPostsByUserId(userId, null, null, currentUser));
+        Branch<List<Follower>> followers = submit("followers", deadline, () -> userService.getFollowerPreview(userId, previewSize, currentUser));
+        Branch<List<User>> followings = submit("followings", deadline, () -> userService.getFollowingPreview(userId, previewSize, currentUser));
+        Branch<List<ReplyView>> replies = submit("replies", deadline, () -> replyService.getLatestRepliesByUserId(userId, previewSize));
+
+        List<String> unavailable = new ArrayList<>();
+        return new UserProfile(user,
+                posts.await(deadline, unavailable),
+                followers.await(deadline, unavailable),
+                followings.await(deadline, unavailable),
+                replies.await(deadline, unavailable),
+                unavailable.isEmpty() ? null : unavailable);
+    }
+
+    //거절되면 기다리지 않고 future 없는 Branch 를 돌려준다. (await 에서 바로 unavailable)
+    private <T> Branch<T> submit(String name, long deadline, Supplier<T> query) {
+        long startedAt = System.nanoTime();
+        try {
+            return new Branch<>(name, profileExecutor.submit(() -> withStatementTimeout(deadline, query)), startedAt);
+        } catch (TaskRejectedException e) {
+            return new Branch<>(name, null, startedAt);
+        }
+    }
+
+    //큐에서 기다린 시간을 빼고 남은 시간만큼만 DB 가 쿼리를 돌린다. (SET LOCAL 은 이 트랜잭션에서만 유효)
+    private <T> T withStatementTimeout(long deadline, Supplier<T> query) throws TimeoutException {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new TimeoutException();
+        }
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + remainingMillis);
+            return query.get();
+        });
+    }
+
+    private final class Branch<T> {
+
+        private final String name;
+        private final Future<T> future;
+        private final long startedAt;
+
+        private Branch(String name, Future<T> future, long startedAt) {
+            this.name = name;
+            this.future = future;
+            this.startedAt = startedAt;
+        }
+
+        //마감까지 남은 시간만큼만 기다린다. 못 가져오면 null 을 돌려주고 unavailable 에 이름을 넣는다.
+        private T await(long deadline, List<String> unavailable) {
+            if (future == null) {
+                record("rejected");
+                unavailable.add(name);
+                return null;
+            }
+            try {
+                T result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                record("success");
+                return result;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                record("timeout");
+                log.debug("profile branch {} timed out after {} ms", name, branchTimeoutMillis);
+            } catch (ExecutionException e) {
+                record("error");
+                log.warn("profile branch {} failed", name, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                record("error");
+            }
+            unavailable.add(name);
+            return null;
+        }
+
+        private void record(String outcome) {
+            Timer.builder("board.profile.branch")
+                    .tag("branch", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.board.service;
 
+import com.example.board.cache.PostSnapshotCache;
+import com.example.board.cache.ResourceVersions;
 import com.example.board.exception.post.PostNotFoundException;
 import com.example.board.exception.reply.ReplyNotFoundException;
 import com.example.board.exception.user.UserNotAllowedException;
@@ -7,13 +9,18 @@ import com.example.board.exception.user.UserNotFoundException;
 import com.example.board.model.entity.PostEntity;
 import com.example.board.model.entity.ReplyEntity;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.Cursor;
+import com.example.board.model.pagination.CursorPage;
 import com.example.board.model.reply.Reply;
 import com.example.board.model.reply.ReplyPatchRequestBody;
 import com.example.board.model.reply.ReplyRequestBody;
+import com.example.board.model.reply.ReplyView;
+import com.example.board.model.user.UserPrincipal;
 import com.example.board.repository.PostEntityRepository;
 import com.example.board.repository.ReplyEntityRepository;
 import com.example.board.repository.UserEntityRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,77 +35,96 @@ public class ReplyService {
     private final ReplyEntityRepository replyEntityRepository;
     private final PostEntityRepository postEntityRepository;
     private final UserEntityRepository userEntityRepository;
+    private final PostSnapshotCache postSnapshotCache;
+    private final ResourceVersions resourceVersions;
 
-    public List<Reply> getRepliesByPostId(Long postId) {
-        PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
+    //댓글 목록 ETag: DB 를 읽지 않고 메모리의 버전만으로 만든다. (댓글 작성/수정/삭제, 게시물 삭제때 바뀜)
+    public String getRepliesETag(Long postId) {
+        return resourceVersions.etag("replies", postId, resourceVersions.version(ResourceVersions.repliesKey(postId)));
+    }
+
+    //게시물의 댓글을 작성순으로 limit 개씩: 댓글 + 작성자를 쿼리 한번으로 가져온다. (게시물/작성자 지연 로딩 없음)
+    public CursorPage<ReplyView> getRepliesByPostId(Long postId, String next, Integer limit) {
+        Cursor cursor = Cursor.decode(next);
+        int size = CursorPage.normalizeLimit(limit);
+
+        List<ReplyView> replies = cursor == null
+                ? replyEntityRepository.findViewsByPostId(postId, Limit.of(size + 1))
+                : replyEntityRepository.findViewsByPostIdAfter(postId, cursor.createdDateTime(), cursor.id(), Limit.of(size + 1));
 
-        List<ReplyEntity> replyEntityList = replyEntityRepository.findByPost(postEntity);
-        List<Reply> list = replyEntityList.stream().map(Reply::from).toList();
-//        List<Reply> list = replyEntityList.stream().map(entity -> Reply.from(entity)).toList();//.map(Reply::from) 를 쉽게 더 풀면
-        return list;
-
-//       stream을 쉽게 풀어서 코딩한것
-//        List<Reply> list = new ArrayList<>();
-//        for (ReplyEntity entity : replyEntityList) {
-//            Reply reply = Reply.from(entity);
-//            list.add(reply);
-//        }
-//        return list;
+        //댓글이 없을때만 게시물이 있는지 확인한다. (없거나 삭제된 게시물이면 404, 삭제된 게시물의 댓글은 조인에서 빠짐)
+        if (replies.isEmpty() && !postEntityRepository.existsById(postId)) {
+            throw new PostNotFoundException(postId);
+        }
+        return CursorPage.of(replies, size, reply -> new Cursor(reply.createdDateTime(), reply.replyId()));
     }
 
 
     @Transactional
-    public Reply createReply(Long postId, ReplyRequestBody replyPostRequestBody, UserEntity currentUser) {
+    public Reply createReply(Long postId, ReplyRequestBody replyPostRequestBody, UserPrincipal currentUser) {
 
         PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
 
-        ReplyEntity replyEntity = ReplyEntity.of(replyPostRequestBody.body(), currentUser, postEntity);
+        ReplyEntity replyEntity = ReplyEntity.of(replyPostRequestBody.body(), userEntityRepository.getReferenceById(currentUser.userId()), postEntity);
 
         ReplyEntity savedReply = replyEntityRepository.save(replyEntity);
 
         Reply reply = Reply.from(savedReply);
-        postEntity.setRepliesCount(postEntity.getRepliesCount() + 1);
-
+        //댓글 수는 SQL 로 더한다. (postEntity 를 고치면 변경 감지로 전체 행 UPDATE + 동시에 달린 댓글 수 유실)
+        postEntityRepository.addRepliesCount(postId, 1);
+        AfterCommit.run(() -> repliesChanged(postId));
 
         return reply;
     }
 
-    public Reply updateReply(Long postId, Long replyId, ReplyPatchRequestBody replyPatchRequestBody, UserEntity currentUser) {
+    public Reply updateReply(Long postId, Long replyId, ReplyPatchRequestBody replyPatchRequestBody, UserPrincipal currentUser) {
         PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
         //필요 없지만 그럼에도 postId를 받은 이유는 보드서비스에서 모든 댓글은 게시물과 함께 보여지기 때문에
         //게시물이 존재하지 않는데 댓글을 수정하거나 할 필요가 없어서 게시물 검증 용도로만 사용했다.
 
         ReplyEntity replyEntity = replyEntityRepository.findById(replyId).orElseThrow(() -> new ReplyNotFoundException(replyId));
 
-        if (!replyEntity.getUser().equals(currentUser)) {
+        if (!replyEntity.getUser().getUserId().equals(currentUser.userId())) {
             throw new UserNotAllowedException();
         }
         replyEntity.setBody(replyPatchRequestBody.body());
         ReplyEntity saved = replyEntityRepository.save(replyEntity);
+        resourceVersions.bump(ResourceVersions.repliesKey(saved.getPost().getPostId()));
         Reply reply = Reply.from(saved);
         return reply;
     }
 
     @Transactional
-    public void deleteReply(Long postId, Long replyId, UserEntity currentUser) {
-        PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
+    public void deleteReply(Long postId, Long replyId, UserPrincipal currentUser) {
+        if (!postEntityRepository.existsById(postId)) {
+            throw new PostNotFoundException(postId);
+        }
         ReplyEntity replyEntity = replyEntityRepository.findById(replyId).orElseThrow(() -> new ReplyNotFoundException(replyId));
 
-        if (!replyEntity.getUser().equals(currentUser)) {
+        //다른 게시물의 댓글이면 이 게시물의 댓글 수를 줄이면 안 된다.
+        if (!replyEntity.getPost().getPostId().equals(postId)) {
+            throw new ReplyNotFoundException(replyId);
+        }
+        if (!replyEntity.getUser().getUserId().equals(currentUser.userId())) {
             throw new UserNotAllowedException();
         }
-        replyEntityRepository.delete(replyEntity);
-
-        postEntity.setRepliesCount(Math.max(0, postEntity.getRepliesCount() - 1));  //댓글 개수 감소 시키고
-        postEntityRepository.save(postEntity); //포스트DB에 저장해야함.
-
-        //여기서는 postEntityRepository.save(postEntity) 를 안 해주고 끝났죠.
-        //그런데도 실제로 DB에 반영됩니다.
-        // 왜냐면: postEntity는 postEntityRepository.findById(...) 로 가져온 엔티티 → 이미 영속 상태(persistent state).
-        //메서드 전체가 @Transactional 안에서 실행되고 있으니까,
-        //트랜잭션이 끝날 때 JPA가 변경 감지(dirty checking) 를 해서
-        //replies_count 값이 바뀌었으면 자동으로 UPDATE 쿼리를 날려줍니다.
-        //즉, save() 안 해도 JPA가 알아서 반영해줘요.
+
+        //실제로 지워졌을때만 댓글 수를 줄인다. 엔티티를 읽고 -1 해서 저장하지 않고 SQL 로 뺀다. (0 아래로는 안 내려감)
+        if (replyEntityRepository.softDeleteById(replyId) == 1) {
+            postEntityRepository.addRepliesCount(postId, -1);
+            AfterCommit.run(() -> repliesChanged(postId));
+        }
+    }
+
+    //댓글 수가 바뀐 게시물 스냅샷을 지우고 댓글 목록 ETag 버전을 올린다.
+    private void repliesChanged(Long postId) {
+        postSnapshotCache.invalidate(postId);
+        resourceVersions.bump(ResourceVersions.repliesKey(postId));
+    }
+
+    //프로필용 최근 댓글 (작성자 조인 쿼리 한번, 게시물은 postId 만)
+    public List<ReplyView> getLatestRepliesByUserId(Long userId, int limit) {
+        return replyEntityRepository.findLatestViewsByUserId(userId, Limit.of(limit));
     }
 
     public List<Reply> getRepliesByUser(String username) {
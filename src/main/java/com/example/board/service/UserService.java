@@ -1,5 +1,9 @@
 package com.example.board.service;
 
+import com.example.board.cache.PrincipalCache;
+import com.example.board.cache.ResourceVersions;
+import com.example.board.event.FollowCreatedEvent;
+import com.example.board.event.FollowDeletedEvent;
 import com.example.board.exception.follow.FollowAlreadyExistException;
 import com.example.board.exception.follow.FollowNotFoundException;
 import com.example.board.exception.follow.InvalidFollowException;
@@ -7,10 +11,11 @@ import com.example.board.exception.post.PostNotFoundException;
 import com.example.board.exception.user.UserAlreadyExistsException;
 import com.example.board.exception.user.UserNotAllowedException;
 import com.example.board.exception.user.UserNotFoundException;
-import com.example.board.model.entity.FollowEntity;
-import com.example.board.model.entity.LikeEntity;
-import com.example.board.model.entity.PostEntity;
+import com.example.board.index.FollowGraphIndex;
+import com.example.board.index.UserSearchIndex;
 import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.Cursor;
+import com.example.board.model.pagination.CursorPage;
 import com.example.board.model.user.*;
 import com.example.board.repository.FollowEntityRepository;
 import com.example.board.repository.LikeEntityRepository;
@@ -18,33 +23,44 @@ import com.example.board.repository.PostEntityRepository;
 import com.example.board.repository.UserEntityRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService implements UserDetailsService {
 
     private final UserEntityRepository userEntityRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashService passwordHashService;
     private final JwtService jwtService;
     private final FollowEntityRepository followEntityRepository;
     private final PostEntityRepository postEntityRepository;
     private final LikeEntityRepository likeEntityRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final FollowGraphIndex followGraphIndex;
+    private final PrincipalCache principalCache;
+    private final UserSearchIndex userSearchIndex;
+    private final ResourceVersions resourceVersions;
 
+    //인증 필터가 매 요청 부르기 때문에 PrincipalCache 를 거친다. (평소에는 DB 조회 없음)
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEntity user = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
-
-        return user;
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        return principalCache.get(username).orElseThrow(() -> new UserNotFoundException(username));
     }
 
-    @Transactional
+    //트랜잭션으로 묶지 않는다. 해시를 기다리는 동안 DB 커넥션을 잡고 있지 않도록. (username 중복은 유니크 인덱스가 막음)
     public User signUp(String username, String password) {
         userEntityRepository
                 .findByUsername(username)
@@ -53,8 +69,9 @@ public class UserService implements UserDetailsService {
                             throw new UserAlreadyExistsException();
                         });
 
-        UserEntity userEntity = UserEntity.of(username, passwordEncoder.encode(password));
+        UserEntity userEntity = UserEntity.of(username, passwordHashService.encode(password));
         UserEntity savedUserEntity = userEntityRepository.save(userEntity);
+        AfterCommit.run(() -> userSearchIndex.add(savedUserEntity.getUserId(), savedUserEntity.getUsername()));
 
         return User.from(savedUserEntity);
     }
@@ -62,143 +79,202 @@ public class UserService implements UserDetailsService {
     public UserAuthenticationResponse authenticate(String username, String password) {
         UserEntity userEntity = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username)); //아이디로 유저 엔티티를 찾는다.
 
-        if (passwordEncoder.matches(password, userEntity.getPassword())) {
-            String accessToken = jwtService.generateAccessToken(userEntity);
+        if (passwordHashService.matches(password, userEntity.getPassword())) {
+            //예전 cost 로 저장된 해시면 맞는 비밀번호를 알고 있는 지금 새 cost 로 다시 저장한다.
+            if (passwordHashService.needsRehash(userEntity.getPassword())) {
+                userEntityRepository.updatePassword(userEntity.getUserId(), passwordHashService.encode(password));
+            }
+            String accessToken = jwtService.generateAccessToken(UserPrincipal.from(userEntity));
             return new UserAuthenticationResponse(accessToken);
         } else {
             throw new UserNotFoundException();
         }
     }
 
-    public List<User> getUsers(String query, UserEntity currentUser) {
-        List<UserEntity> userEntities;
-
-        if (query != null && !query.isBlank()) { //쿼리가 값이 있는경우 --> 검색한다.
-            //TODO: query검색어 기반, 해당 검색어가, username에 포함되어 있는 유저 목록 가져오기
-            userEntities = userEntityRepository.findByUsernameContaining(query);
+    //읽기 전용 경로는 엔티티 대신 User 프로젝션으로 바로 조회한다. (쿼리 1번, 팔로우 여부는 메모리 인덱스)
+    //검색은 UserSearchIndex(메모리)가 순위를 매긴 userId 를 주고, 그 limit 명만 DB 에서 읽는다.
+    public List<User> getUsers(String query, Integer limit, UserPrincipal currentUser) {
+        int size = CursorPage.normalizeLimit(limit);
+        List<User> users;
+        if (query == null || query.isBlank()) {
+            users = userEntityRepository.findLatestViews(Limit.of(size)); //검색어가 없으면 최근 가입한 limit 명만
+        } else if (userSearchIndex.isReady()) {
+            users = findViewsInOrder(userSearchIndex.search(query, size));
         } else {
-            userEntities = userEntityRepository.findAll();//없으면 그냥 다 가져오기
+            users = userEntityRepository.findViewsByUsernameContaining(query.strip(), Limit.of(size)); //인덱스를 만드는 중
         }
-        return userEntities.stream().map(userEntity -> getUserWithFollowingStatus(userEntity, currentUser)).toList();
+        return withFollowingStatus(users, User::userId, User::withIsFollwing, currentUser);
     }
 
-    public User getUser(String username, UserEntity currentUser) {
-        UserEntity userEntity = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
-        return getUserWithFollowingStatus(userEntity, currentUser);
+    //IN 조회는 순서를 보장하지 않아서 인덱스가 준 순위대로 다시 정렬한다.
+    private List<User> findViewsInOrder(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> usersById = userEntityRepository.findViewsByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(User::userId, Function.identity()));
+        return userIds.stream().map(usersById::get).filter(Objects::nonNull).toList();
     }
 
-    //반복되는 작업을 메소드화 시킴
-    private User getUserWithFollowingStatus(UserEntity userEntity, UserEntity currentUser) {
-        boolean isFollowing = followEntityRepository.findByFollowerAndFollowing(currentUser, userEntity).isPresent();
+    //유저 단건 조회 ETag: DB 를 읽지 않고 메모리의 버전만으로 만든다. (팔로우 여부가 보는 사람마다 달라서 보는 사람도 넣음)
+    public String getUserETag(String username, UserPrincipal currentUser) {
+        return resourceVersions.etag("user", username, resourceVersions.version(ResourceVersions.userKey(username)), currentUser.userId());
+    }
+
+    public User getUser(String username, UserPrincipal currentUser) {
+        User user = userEntityRepository.findViewByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        return user.withIsFollwing(isFollowing(currentUser, user.userId()));
+    }
 
-        return User.from(userEntity, isFollowing);
+    //팔로우 여부는 FollowGraphIndex(메모리)로 답한다. 인덱스를 아직 만드는 중이면 DB 로 조회한다.
+    private boolean isFollowing(UserPrincipal currentUser, Long userId) {
+        if (followGraphIndex.isReady()) {
+            return followGraphIndex.isFollowing(currentUser.userId(), userId);
+        }
+        return !followEntityRepository.findFollowingIdsIn(currentUser.userId(), List.of(userId)).isEmpty();
     }
 
-    public User updateUser(String username, UserPatchRequestBody userPatchRequestBody, UserEntity currentUser) {
+    //목록 버전: 인덱스가 준비되어 있으면 DB 조회 0번, 아니면 IN 쿼리 한번
+    private <T> List<T> withFollowingStatus(List<T> users, Function<T, Long> userIdOf, BiFunction<T, Boolean, T> withIsFollwing, UserPrincipal currentUser) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        Long currentUserId = currentUser.userId();
+        if (followGraphIndex.isReady()) {
+            return users.stream()
+                    .map(user -> withIsFollwing.apply(user, followGraphIndex.isFollowing(currentUserId, userIdOf.apply(user))))
+                    .toList();
+        }
+        Set<Long> followingIds = new HashSet<>(followEntityRepository.findFollowingIdsIn(currentUserId, users.stream().map(userIdOf).toList()));
+        return users.stream()
+                .map(user -> withIsFollwing.apply(user, followingIds.contains(userIdOf.apply(user))))
+                .toList();
+    }
+
+    public User updateUser(String username, UserPatchRequestBody userPatchRequestBody, UserPrincipal currentUser) {
         UserEntity userEntity = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
 
-        if (!userEntity.equals(currentUser)) {
+        if (!userEntity.getUserId().equals(currentUser.userId())) {
             throw new UserNotAllowedException();
         }
         if (userPatchRequestBody.description() != null) {
             userEntity.setDescription(userPatchRequestBody.description());
         }
         UserEntity saved = userEntityRepository.save(userEntity);
+        userChanged(username);
         return User.from(saved);
     }
 
+    //팔로우 INSERT 와 카운터 증가를 SQL 한번씩으로 처리한다. (엔티티를 읽고 +1 해서 저장하면 동시에 팔로우할때 값이 유실됨)
     @Transactional
-    public User follow(String username, UserEntity currentUser) {
+    public User follow(String username, UserPrincipal currentUser) {
         UserEntity following = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
 
-        if (following.equals(currentUser)) {
+        if (following.getUserId().equals(currentUser.userId())) {
             throw new InvalidFollowException("A user cannot follow themselves!");
         }
-        followEntityRepository.findByFollowerAndFollowing(currentUser, following).ifPresent(follow -> {
-            throw new FollowAlreadyExistException(currentUser, following);
-        });
-        FollowEntity followEntity = FollowEntity.of(currentUser, following);
-        followEntityRepository.save(followEntity);
+        Long followerId = currentUser.userId();
+        Long followingId = following.getUserId();
 
-        following.setFollowersCount(following.getFollowersCount() + 1);
-        currentUser.setFollowingsCount(following.getFollowingsCount() + 1);
-        userEntityRepository.save(following);
-        userEntityRepository.save(currentUser);
-//        userEntityRepository.saveAll(List.of(following, currentUser)); 이렇게도 할 수 있음.
+        //이미 팔로우 중이면 INSERT 되지 않는다. (동시에 두번 요청해도 유니크 인덱스 에러 대신 409)
+        if (followEntityRepository.insertIfAbsent(followerId, followingId) == 0) {
+            throw new FollowAlreadyExistException(currentUser.username(), following.getUsername());
+        }
+        userEntityRepository.addFollowersCount(followingId, 1);
+        userEntityRepository.addFollowingsCount(followerId, 1);
+
+        //카운터는 DB 에서 바뀌었기 때문에 응답은 다시 읽어서 만든다. (following 엔티티 값은 증가 전)
+        User user = userEntityRepository.findViewByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        applicationEventPublisher.publishEvent(new FollowCreatedEvent(followerId, followingId, user.followersCount()));
+        AfterCommit.run(() -> {
+            followGraphIndex.follow(followerId, followingId);
+            countsChanged(currentUser.username());
+            countsChanged(username);
+        });
 
-        User user = User.from(following, true);
-        return user;
+        return user.withIsFollwing(true);
     }
 
     @Transactional
-    public User unFollow(String username, UserEntity currentUser) {
+    public User unFollow(String username, UserPrincipal currentUser) {
         UserEntity following = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
 
-        if (following.equals(currentUser)) {
+        if (following.getUserId().equals(currentUser.userId())) {
             throw new InvalidFollowException("A user cannot unfollow themselves!");
         }
+        Long followerId = currentUser.userId();
+        Long followingId = following.getUserId();
 
-        FollowEntity followEntity = followEntityRepository.findByFollowerAndFollowing(currentUser, following).orElseThrow(
-                () -> new FollowNotFoundException(currentUser, following));
-
-        followEntityRepository.delete(followEntity);
-
-
-        following.setFollowersCount(Math.max(0, following.getFollowersCount() - 1));
-        currentUser.setFollowingsCount(Math.max(0, following.getFollowingsCount() - 1));
-
-        userEntityRepository.saveAll(List.of(following, currentUser));
+        //실제로 지워졌을때만 카운터를 줄인다. (동시에 두번 언팔로우해도 한번만 감소)
+        if (followEntityRepository.deleteByFollowerIdAndFollowingId(followerId, followingId) == 0) {
+            throw new FollowNotFoundException(currentUser.username(), following.getUsername());
+        }
+        long followersCount = userEntityRepository.decrementFollowersCount(followingId);
+        userEntityRepository.addFollowingsCount(followerId, -1);
+
+        User user = userEntityRepository.findViewByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        applicationEventPublisher.publishEvent(new FollowDeletedEvent(followerId, followingId, followersCount));
+        AfterCommit.run(() -> {
+            followGraphIndex.unfollow(followerId, followingId);
+            countsChanged(currentUser.username());
+            countsChanged(username);
+        });
 
-        return User.from(following, false);
+        return user.withIsFollwing(false);
     }
 
-    public List<Follower> getFollowersByUsername(String username, UserEntity currentUser) {
-        UserEntity following = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
-
-        List<FollowEntity> followEntities = followEntityRepository.findByFollower(following);
-        return followEntities
-                .stream()
-                .map(follow -> Follower.from(
-                        getUserWithFollowingStatus(follow.getFollower(), currentUser), follow.getCreatedDateTime()))
-                .toList();
+    //유저 정보가 바뀌면 캐시된 principal 을 지우고 ETag 버전을 올린다.
+    private void userChanged(String username) {
+        principalCache.invalidate(username);
+        countsChanged(username);
     }
 
-    public List<User> getFollowingsByUser(String username, UserEntity currentUser) {
-        UserEntity follower = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+    //팔로우 수만 바뀌면 principal 은 그대로고 응답(ETag)만 바뀐다.
+    private void countsChanged(String username) {
+        resourceVersions.bump(ResourceVersions.userKey(username));
+    }
 
-        List<FollowEntity> followEntities = followEntityRepository.findByFollower(follower);
-        return followEntities
-                .stream()
-                .map(follow -> getUserWithFollowingStatus(follow.getFollowing(), currentUser))
-                .toList();
+    //username 을 팔로우하는 유저들 (following 이 username 인 팔로우)
+    public List<Follower> getFollowersByUsername(String username, UserPrincipal currentUser) {
+        Long userId = userEntityRepository.findUserIdByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        return withFollowingStatus(followEntityRepository.findFollowerViews(userId), Follower::userId, Follower::withIsFollwing, currentUser);
     }
 
-    public List<LikedUser> getLikedUsersByPostId(Long postId, UserEntity currentUser) {
-        PostEntity postEntity = postEntityRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId));
+    public List<User> getFollowingsByUser(String username, UserPrincipal currentUser) {
+        Long userId = userEntityRepository.findUserIdByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        return withFollowingStatus(followEntityRepository.findFollowingViews(userId), User::userId, User::withIsFollwing, currentUser);
+    }
 
-        List<LikeEntity> likeEntities = likeEntityRepository.findByPost(postEntity);
-        return likeEntities.stream()
-                .map(likeEntity -> getLikedUserWithFollowingStatus(likeEntity, postEntity, currentUser))
-                .toList();
+    //프로필 미리보기: userId 를 이미 알기 때문에 username 조회 없이 limit 명만
+    public List<Follower> getFollowerPreview(Long userId, int limit, UserPrincipal currentUser) {
+        return withFollowingStatus(followEntityRepository.findFollowerViews(userId, Limit.of(limit)), Follower::userId, Follower::withIsFollwing, currentUser);
     }
 
+    public List<User> getFollowingPreview(Long userId, int limit, UserPrincipal currentUser) {
+        return withFollowingStatus(followEntityRepository.findFollowingViews(userId, Limit.of(limit)), User::userId, User::withIsFollwing, currentUser);
+    }
 
-    private LikedUser getLikedUserWithFollowingStatus(LikeEntity likeEntity, PostEntity postEntity, UserEntity currentUser) {
-        UserEntity likedUserEntity = likeEntity.getUser();
-        User userWithFollowingStatus = getUserWithFollowingStatus(likedUserEntity, currentUser);
-        return LikedUser.from(userWithFollowingStatus, postEntity.getPostId(), likeEntity.getCreatedDateTime());
+    public List<LikedUser> getLikedUsersByPostId(Long postId, UserPrincipal currentUser) {
+        if (!postEntityRepository.existsById(postId)) {
+            throw new PostNotFoundException(postId);
+        }
+        return withFollowingStatus(likeEntityRepository.findLikedUserViewsByPostId(postId), LikedUser::userId, LikedUser::withIsFollwing, currentUser);
     }
 
-    public List<LikedUser> getLikedUsersByUser(String username, UserEntity currentUser) {
-        UserEntity userEntityr = userEntityRepository.findByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
 
-        List<PostEntity> postEntities = postEntityRepository.findByUser(userEntityr);
-        return postEntities
-                .stream()
-                .flatMap(postEntity -> likeEntityRepository.findByPost(postEntity)
-                        .stream()
-                        .map(likeEntity -> getLikedUserWithFollowingStatus(likeEntity, postEntity, currentUser)))
-                .toList();
+    //username 이 쓴 게시물들에 좋아요 누른 유저들: 조인 쿼리 한번 + 키셋 페이지네이션, 팔로우 여부는 메모리 인덱스
+    public CursorPage<LikedUser> getLikedUsersByUser(String username, String next, Integer limit, UserPrincipal currentUser) {
+        Long userId = userEntityRepository.findUserIdByUsername(username).orElseThrow(() -> new UserNotFoundException(username));
+        Cursor cursor = Cursor.decode(next);
+        int size = CursorPage.normalizeLimit(limit);
+
+        List<LikedUser> likedUsers = cursor == null
+                ? likeEntityRepository.findLikedUserViewsByPostAuthorId(userId, Limit.of(size + 1))
+                : likeEntityRepository.findLikedUserViewsByPostAuthorIdBefore(userId, cursor.createdDateTime(), cursor.id(), Limit.of(size + 1));
 
+        return CursorPage.of(
+                withFollowingStatus(likedUsers, LikedUser::userId, LikedUser::withIsFollwing, currentUser),
+                size,
+                likedUser -> new Cursor(likedUser.likedDateTime(), likedUser.likeId()));
     }
 }
@@ -0,0 +1,22 @@
+package com.example.board;
+
+import com.example.board.model.entity.UserEntity;
+import com.example.board.repository.UserEntityRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+//@SpringBootTest 에서 쓰는 테스트 유저 생성기. username 이 겹치지 않아서 테스트끼리 서로의 유저를 건드리지 않는다.
+@Component
+public class TestUsers {
+
+    private final UserEntityRepository userEntityRepository;
+
+    public TestUsers(UserEntityRepository userEntityRepository) {
+        this.userEntityRepository = userEntityRepository;
+    }
+
+    public UserEntity create() {
+        return userEntityRepository.save(UserEntity.of("user-" + UUID.randomUUID(), "password"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.board.cache;
+
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.UserPatchRequestBody;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.UserEntityRepository;
+import com.example.board.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//인증 필터가 부르는 loadUserByUsername 이 캐시에서 답하고, 팔로우로는 지워지지 않고 수정하면 바로 다시 읽는지 확인
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PrincipalCacheTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserEntityRepository userEntityRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void principalIsCachedAndInvalidatedOnChange() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String username = "user-" + UUID.randomUUID();
+        UserEntity userEntity = userEntityRepository.save(UserEntity.of(username, "password"));
+
+        UserPrincipal principal = userService.loadUserByUsername(username);
+        assertThat(principal).isEqualTo(UserPrincipal.from(userEntity));
+        statistics.clear();
+        for (int i = 0; i < 10; i++) {
+            userService.loadUserByUsername(username);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        //팔로우 수가 바뀌어도 principal 은 그대로라 다시 읽지 않는다.
+        UserEntity follower = userEntityRepository.save(UserEntity.of("user-" + UUID.randomUUID(), "password"));
+        userService.follow(username, UserPrincipal.from(follower));
+        statistics.clear();
+        userService.loadUserByUsername(username);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        //수정하면 캐시에서 빠져서 다음 인증때 다시 읽는다.
+        userService.updateUser(username, new UserPatchRequestBody("changed"), principal);
+        statistics.clear();
+        userService.loadUserByUsername(username);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
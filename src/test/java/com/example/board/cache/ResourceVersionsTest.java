@@ -0,0 +1,39 @@
+package com.example.board.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions resourceVersions = new ResourceVersions(new SimpleMeterRegistry(), 10);
+
+    @Test
+    void bumpChangesOnlyThatKey() {
+        String before = resourceVersions.etag("user", "a", resourceVersions.version("user:a"));
+        String other = resourceVersions.etag("user", "b", resourceVersions.version("user:b"));
+
+        resourceVersions.bump("user:a");
+
+        assertThat(resourceVersions.etag("user", "a", resourceVersions.version("user:a"))).isNotEqualTo(before);
+        assertThat(resourceVersions.etag("user", "b", resourceVersions.version("user:b"))).isEqualTo(other);
+        assertThat(before).startsWith("\"").endsWith("\"");
+    }
+
+    //기억 못하게 된 키가 예전 버전으로 돌아가면 안 된다. (바뀐 리소스에 예전 ETag)
+    @Test
+    void evictedKeysNeverGoBackToOlderVersion() {
+        long untouched = resourceVersions.version("never-written");
+        resourceVersions.bump("first");
+        long first = resourceVersions.version("first");
+
+        for (int i = 0; i < 1000; i++) {
+            resourceVersions.bump("key-" + i);
+        }
+
+        assertThat(first).isGreaterThan(untouched);
+        assertThat(resourceVersions.version("first")).isGreaterThanOrEqualTo(first);
+        assertThat(resourceVersions.version("never-written")).isGreaterThan(untouched);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.board.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnpinnedLoadingCacheTest {
+
+    private final UnpinnedLoadingCache<Long, String> cache = new UnpinnedLoadingCache<>(Caffeine.newBuilder().maximumSize(100));
+
+    @Test
+    void loadsOnceThenServesFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, key -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(1L, key -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(2L, key -> null)).isNull();
+        assertThat(cache.cache().stats().loadCount()).isEqualTo(2);
+        assertThat(cache.cache().stats().hitCount()).isEqualTo(1);
+    }
+
+    //조회하는 동안 invalidate 되면 (수정이 커밋됨) 조회한 예전 값을 넣지 않는다.
+    @Test
+    void doesNotCacheValueLoadedAcrossInvalidation() {
+        String loaded = cache.get(1L, key -> {
+            cache.invalidate(1L);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.get(1L, key -> "fresh")).isEqualTo("fresh");
+    }
+}
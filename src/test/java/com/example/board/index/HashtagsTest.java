@@ -0,0 +1,27 @@
+package com.example.board.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashtagsTest {
+
+    @Test
+    void extractsNormalizedDistinctTags() {
+        assertThat(Hashtags.extract("#Spring_Boot 3.5 나왔다 #자바 #spring_boot!! (#JPA)"))
+                .containsExactly("spring_boot", "자바", "jpa");
+    }
+
+    @Test
+    void ignoresNonTags() {
+        assertThat(Hashtags.extract("a#b &#39; ##double #1 # #" + "x".repeat(51))).isEmpty();
+        assertThat(Hashtags.extract(null)).isEmpty();
+    }
+
+    @Test
+    void normalizesPathTag() {
+        assertThat(Hashtags.normalize("#Java")).isEqualTo("java");
+        assertThat(Hashtags.normalize("java-script")).isNull();
+        assertThat(Hashtags.normalize("2024")).isNull();
+    }
+}
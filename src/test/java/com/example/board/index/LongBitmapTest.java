@@ -0,0 +1,47 @@
+package com.example.board.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongBitmapTest {
+
+    //배열 ↔ 비트맵 컨테이너 전환과 여러 key 에 걸친 값을 TreeSet 과 비교한다.
+    @Test
+    void behavesLikeASet() {
+        LongBitmap bitmap = new LongBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(3) == 0 ? random.nextLong(1L << 40) : random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertThat(bitmap.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                assertThat(bitmap.add(value)).isEqualTo(expected.add(value));
+            }
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        for (long value = 0; value < 20_000; value++) {
+            assertThat(bitmap.contains(value)).isEqualTo(expected.contains(value));
+        }
+        expected.forEach(value -> assertThat(bitmap.contains(value)).isTrue());
+
+        expected.forEach(bitmap::remove);
+        assertThat(bitmap.isEmpty()).isTrue();
+        assertThat(bitmap.contains(1)).isFalse();
+    }
+
+    @Test
+    void denseValuesUseAboutOneBitEach() {
+        LongBitmap bitmap = new LongBitmap();
+        for (long value = 0; value < 65_536; value++) {
+            bitmap.add(value);
+        }
+        assertThat(bitmap.estimatedBytes()).isLessThan(9_000);
+    }
+}
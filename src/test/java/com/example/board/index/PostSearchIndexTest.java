@@ -0,0 +1,123 @@
+package com.example.board.index;
+
+import com.example.board.model.post.PostBody;
+import com.example.board.repository.PostEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostSearchIndexTest {
+
+    private static final List<String> WORDS = List.of(
+            "spring", "boot", "cache", "index", "query", "post", "reply", "feed", "search", "tuning",
+            "게시물", "댓글", "검색", "캐시", "java", "jpa", "hibernate", "postgres", "latency", "memory");
+    private static final List<String> QUERIES = List.of("spring", "cache index", "게시물 검색", "java jpa hibernate", "latency", "post reply feed");
+
+    //드문 단어가 많이 나온 짧은 글이 위로, 수정/삭제된 글은 예전 내용으로 검색되지 않는다.
+    @Test
+    void ranksByBm25AndFollowsUpdates() {
+        PostSearchIndex index = build(List.of(), 20_000);
+        index.add(1L, "Spring Boot cache tuning");
+        index.add(2L, "spring spring spring: the season of spring");
+        index.add(3L, "A long post about many things, including a single mention of spring and also of boot and more words here");
+        index.add(4L, "게시물을 검색하는 방법");
+        index.add(5L, "nothing relevant");
+
+        assertThat(index.search("spring", 10)).containsExactly(2L, 1L, 3L);
+        assertThat(index.search("BOOT cache", 10)).containsExactly(1L, 3L);
+        assertThat(index.search("게시물", 10)).containsExactly(4L);
+        assertThat(index.search("spring", 1)).containsExactly(2L);
+        assertThat(index.search("missing", 10)).isEmpty();
+
+        index.add(1L, "now about caffeine");
+        assertThat(index.search("boot", 10)).containsExactly(3L);
+        assertThat(index.search("caffeine", 10)).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("spring", 10)).containsExactly(3L);
+    }
+
+    //fork/join 으로 나눠서 만들고 (배치 여러 개 + 배치 안에서 여러 조각) 이어 붙인 인덱스가 하나씩 add 한 인덱스와 같은 결과인지
+    @Test
+    void parallelRebuildMatchesIncrementalIndexing() {
+        List<PostBody> posts = randomPosts(4 * PostSearchIndex.PARTIAL_INDEX_THRESHOLD + 123);
+        PostSearchIndex rebuilt = build(posts, 3 * PostSearchIndex.PARTIAL_INDEX_THRESHOLD);
+        PostSearchIndex incremental = build(List.of(), 20_000);
+        posts.forEach(post -> incremental.add(post.postId(), post.body()));
+
+        for (String query : QUERIES) {
+            assertThat(rebuilt.search(query, 50)).isEqualTo(incremental.search(query, 50));
+            assertThat(rebuilt.search(query, posts.size())).isEqualTo(incremental.search(query, posts.size()));
+        }
+    }
+
+    //지워진 문서가 비율을 넘으면 정리되고, 정리된 인덱스는 남은 게시물만으로 새로 만든 인덱스와 같은 결과
+    @Test
+    void compactsDeletedDocs() {
+        List<PostBody> posts = randomPosts(3 * PostSearchIndex.COMPACT_MIN_DELETED_DOCS);
+        PostSearchIndex index = build(posts, 20_000);
+        //짝수 게시물을 COMPACT_MIN_DELETED_DOCS 개 지우면 (비율 1/3 > 0.25) 마지막 삭제에서 정리된다.
+        List<PostBody> remaining = new ArrayList<>();
+        int deleted = 0;
+        for (PostBody post : posts) {
+            if (post.postId() % 2 == 0 && deleted < PostSearchIndex.COMPACT_MIN_DELETED_DOCS) {
+                assertThat(index.deletedDocCount()).isEqualTo(deleted);
+                index.remove(post.postId());
+                deleted++;
+            } else {
+                remaining.add(post);
+            }
+        }
+        PostSearchIndex fresh = build(remaining, 20_000);
+
+        assertThat(index.deletedDocCount()).isZero();
+        //정리 뒤에 수정/추가해도 번호가 이어진다.
+        index.add(1L, "spring spring spring");
+        fresh.add(1L, "spring spring spring");
+        for (String query : QUERIES) {
+            assertThat(index.search(query, remaining.size())).isEqualTo(fresh.search(query, remaining.size()));
+        }
+    }
+
+    //post 테이블 스트리밍 대신 주어진 게시물로 build() 를 돌린다.
+    @SuppressWarnings("unchecked")
+    private static PostSearchIndex build(List<PostBody> posts, int rebuildBatchSize) {
+        PostEntityRepository postEntityRepository = mock(PostEntityRepository.class);
+        when(postEntityRepository.streamAllPostBodies()).thenAnswer(invocation -> posts.stream());
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        PostSearchIndex index = new PostSearchIndex(postEntityRepository, transactionTemplate, rebuildBatchSize, 0.25);
+        index.build();
+        return index;
+    }
+
+    private static List<PostBody> randomPosts(int count) {
+        Random random = new Random(42);
+        List<PostBody> posts = new ArrayList<>(count);
+        for (long postId = 1; postId <= count; postId++) {
+            StringBuilder body = new StringBuilder();
+            int length = 3 + random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                //앞쪽 단어일수록 자주 나오게
+                body.append(WORDS.get(Math.min(random.nextInt(WORDS.size()), random.nextInt(WORDS.size())))).append(' ');
+            }
+            posts.add(new PostBody(postId, body.toString()));
+        }
+        return posts;
+    }
+}
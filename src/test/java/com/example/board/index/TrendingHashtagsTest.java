@@ -0,0 +1,67 @@
+package com.example.board.index;
+
+import com.example.board.model.hashtag.TrendingHashtag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingHashtagsTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AtomicLong now = new AtomicLong(100 * MINUTE);
+    //10분 구간, 1분 칸
+    private final TrendingHashtags trending = new TrendingHashtags(null, null, 10 * MINUTE, MINUTE, now::get);
+
+    @Test
+    void countsOnlyPostsInsideWindow() {
+        trending.add("java", now.get() - 9 * MINUTE);
+        trending.add("java", now.get());
+        trending.add("spring", now.get());
+        trending.add("old", now.get() - 10 * MINUTE); //이미 구간 밖
+
+        assertThat(trending.top(10)).containsExactly(new TrendingHashtag("java", 2), new TrendingHashtag("spring", 1));
+
+        //1분이 지나면 가장 오래된 칸이 빠진다.
+        now.addAndGet(MINUTE);
+        assertThat(trending.top(10)).containsExactly(new TrendingHashtag("java", 1), new TrendingHashtag("spring", 1));
+
+        //구간보다 오래 아무 일도 없으면 전부 빠진다.
+        now.addAndGet(30 * MINUTE);
+        assertThat(trending.top(10)).isEmpty();
+        assertThat(trending.size()).isZero();
+    }
+
+    @Test
+    void keepsTopKByCountThenTag() {
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j <= i; j++) {
+                trending.add("tag" + i, now.get() - (j % 10) * MINUTE);
+            }
+        }
+        trending.add("a", now.get());
+        trending.add("b", now.get());
+
+        assertThat(trending.top(3)).extracting(TrendingHashtag::tag).containsExactly("tag49", "tag48", "tag47");
+        assertThat(trending.top(3).get(0).count()).isEqualTo(50);
+        //횟수가 같으면 태그 이름 순
+        assertThat(trending.top(52)).extracting(TrendingHashtag::tag).endsWith("a", "b", "tag0");
+    }
+
+    //게시물이 지워지면 작성 시간의 칸에서 뺀다. (없는 것은 빼지 않음)
+    @Test
+    void removesFromBucketOfCreatedTime() {
+        long createdAt = now.get() - 3 * MINUTE;
+        trending.add("java", createdAt);
+        trending.add("java", createdAt);
+        trending.remove("java", createdAt);
+        trending.remove("spring", createdAt);
+
+        assertThat(trending.top(10)).containsExactly(new TrendingHashtag("java", 1));
+
+        trending.remove("java", createdAt);
+        assertThat(trending.top(10)).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.board.index;
+
+import com.example.board.model.user.UserKey;
+import com.example.board.repository.UserEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTest {
+
+    private final UserSearchIndex index = new UserSearchIndex(null, null, 20_000);
+
+    //정확히 같음 → 접두어 → 포함 순, 같은 순위는 짧은 username 먼저
+    @Test
+    void ranksExactThenPrefixThenContaining() {
+        index.add(1L, "my-jayce");
+        index.add(2L, "jayce-kim");
+        index.add(3L, "Jayce");
+        index.add(4L, "jay");
+        index.add(5L, "the-jayce-fan");
+        index.add(6L, "alice");
+
+        assertThat(index.search("jayce", 10)).containsExactly(3L, 2L, 1L, 5L);
+        assertThat(index.search("JAYCE", 2)).containsExactly(3L, 2L);
+        assertThat(index.search("ja", 10)).containsExactly(4L, 3L, 2L); //2글자는 접두어만
+        assertThat(index.search("yce-k", 10)).containsExactly(2L);
+        assertThat(index.search("ecyaj", 10)).isEmpty();
+
+        //트라이그램은 다 있지만 붙어 있지 않은 경우
+        index.add(7L, "abcxbcd");
+        assertThat(index.search("abcd", 10)).isEmpty();
+    }
+
+    //포함 후보는 max-candidates 개까지만 확인하지만, 접두어 일치는 그와 상관없이 들어간다.
+    @Test
+    void containingCandidatesAreCappedButPrefixMatchesAreNot() {
+        UserSearchIndex capped = new UserSearchIndex(null, null, 2);
+        for (long userId = 1; userId <= 5; userId++) {
+            capped.add(userId, "x-user" + userId);
+        }
+        capped.add(9L, "user-9");
+
+        assertThat(capped.search("user", 10)).containsExactly(9L, 1L, 2L);
+    }
+
+    //만드는 동안에는 isReady() 가 false 라서 UserService 가 DB 로 조회하고,
+    //그 사이에 가입한 유저는 다 만든 뒤 DB 에서 다시 읽어서 빠지지 않는다.
+    @Test
+    void usersAddedWhileBuildingAreReloaded() {
+        UserEntityRepository userEntityRepository = mock(UserEntityRepository.class);
+        UserSearchIndex building = new UserSearchIndex(userEntityRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 20_000);
+        AtomicBoolean readyWhileBuilding = new AtomicBoolean(true);
+        //스트림은 시작할때의 스냅샷이라 중간에 가입한 3번은 들어있지 않다.
+        when(userEntityRepository.streamAllUserKeys()).thenReturn(Stream.of(new UserKey(1L, "alice"), new UserKey(2L, "bob"))
+                .peek(userKey -> {
+                    readyWhileBuilding.set(building.isReady());
+                    if (userKey.userId() == 1L) {
+                        building.add(3L, "alice-late");
+                    }
+                }));
+        when(userEntityRepository.findUserKeyByUserId(3L)).thenReturn(Optional.of(new UserKey(3L, "alice-late")));
+
+        assertThat(building.isReady()).isFalse();
+        building.build();
+
+        assertThat(readyWhileBuilding).isFalse();
+        assertThat(building.isReady()).isTrue();
+        assertThat(building.size()).isEqualTo(3);
+        assertThat(building.search("alice", 10)).containsExactly(1L, 3L);
+    }
+}
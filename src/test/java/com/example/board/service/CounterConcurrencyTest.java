@@ -0,0 +1,147 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.exception.follow.FollowAlreadyExistException;
+import com.example.board.exception.reply.ReplyNotFoundException;
+import com.example.board.model.entity.PostEntity;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.reply.Reply;
+import com.example.board.model.reply.ReplyRequestBody;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.PostEntityRepository;
+import com.example.board.repository.UserEntityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//카운터를 SQL 로 더하기 때문에 동시에 수백 건이 들어와도 최종 값이 정확한지 확인하는 테스트
+@SpringBootTest
+class CounterConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int USERS = 300;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ReplyService replyService;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private UserEntityRepository userEntityRepository;
+    @Autowired
+    private PostEntityRepository postEntityRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followCountsAreExactUnderConcurrency() throws Exception {
+        UserEntity celebrity = testUsers.create();
+        UserEntity hub = testUsers.create();
+        List<UserEntity> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(testUsers.create());
+        }
+
+        //모두가 celebrity 를 팔로우하고, hub 는 모두를 팔로우한다. (같은 행의 카운터에 동시에 쓰기가 몰림)
+        runAll(users.stream().<Callable<Object>>map(user -> () -> userService.follow(celebrity.getUsername(), UserPrincipal.from(user))).toList());
+        runAll(users.stream().<Callable<Object>>map(user -> () -> userService.follow(user.getUsername(), UserPrincipal.from(hub))).toList());
+
+        //같은 팔로우를 동시에 두번: 한쪽만 성공하고 카운터는 한번만 증가한다.
+        AtomicInteger conflicts = new AtomicInteger();
+        UserEntity lateFollower = testUsers.create();
+        runAll(List.of(
+                () -> followIgnoringConflict(celebrity, lateFollower, conflicts),
+                () -> followIgnoringConflict(celebrity, lateFollower, conflicts)));
+        assertThat(conflicts).hasValue(1);
+
+        //절반은 언팔로우
+        runAll(users.subList(0, USERS / 2).stream().<Callable<Object>>map(user -> () -> userService.unFollow(celebrity.getUsername(), UserPrincipal.from(user))).toList());
+
+        assertThat(reload(celebrity).getFollowersCount()).isEqualTo(USERS - USERS / 2 + 1L);
+        assertThat(reload(hub).getFollowingsCount()).isEqualTo(USERS);
+        assertThat(reload(users.get(0)).getFollowingsCount()).isZero();
+        assertThat(reload(users.get(0)).getFollowersCount()).isEqualTo(1);
+        assertThat(reload(users.get(USERS - 1)).getFollowingsCount()).isEqualTo(1);
+    }
+
+    @Test
+    void repliesCountIsExactUnderConcurrency() throws Exception {
+        UserEntity author = testUsers.create();
+        PostEntity post = postEntityRepository.save(PostEntity.of("post", author));
+
+        List<Callable<Reply>> creates = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            int index = i;
+            creates.add(() -> replyService.createReply(post.getPostId(), new ReplyRequestBody("reply " + index), UserPrincipal.from(author)));
+        }
+        List<Reply> replies = runAll(creates);
+        assertThat(reload(post).getRepliesCount()).isEqualTo(USERS);
+
+        //100개를 각각 동시에 두번씩 지운다: 실제로 지워진 한번만 감소한다. (늦게 온 요청은 이미 지워진 댓글이라 404 일 수 있음)
+        List<Callable<Object>> deletes = new ArrayList<>();
+        for (Reply reply : replies.subList(0, 100)) {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                deletes.add(() -> {
+                    try {
+                        replyService.deleteReply(post.getPostId(), reply.replyId(), UserPrincipal.from(author));
+                    } catch (ReplyNotFoundException e) {
+                        //이미 지워짐
+                    }
+                    return null;
+                });
+            }
+        }
+        runAll(deletes);
+
+        assertThat(reload(post).getRepliesCount()).isEqualTo(USERS - 100);
+    }
+
+    private Object followIgnoringConflict(UserEntity following, UserEntity follower, AtomicInteger conflicts) {
+        try {
+            return userService.follow(following.getUsername(), UserPrincipal.from(follower));
+        } catch (FollowAlreadyExistException e) {
+            conflicts.incrementAndGet();
+            return null;
+        }
+    }
+
+    //전부 동시에 시작시키고 결과를 모은다. (하나라도 예외면 실패)
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private UserEntity reload(UserEntity user) {
+        return userEntityRepository.findById(user.getUserId()).orElseThrow();
+    }
+
+    private PostEntity reload(PostEntity post) {
+        return postEntityRepository.findById(post.getPostId()).orElseThrow();
+    }
+}
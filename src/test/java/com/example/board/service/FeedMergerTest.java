@@ -0,0 +1,64 @@
+package com.example.board.service;
+
+import com.example.board.model.pagination.Cursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedMergerTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    //여러 목록이 최신순으로 섞여서 나오고, 같은 시각이면 id 가 큰 게 먼저
+    @Test
+    void interleavesNewestFirst() {
+        List<Cursor> pushed = List.of(key(10, 100), key(7, 70), key(3, 30));
+        List<Cursor> celebrityA = List.of(key(9, 90), key(7, 71), key(1, 10));
+        List<Cursor> celebrityB = List.of(key(8, 80));
+
+        assertThat(ids(FeedMerger.merge(List.of(pushed, celebrityA, celebrityB), 10)))
+                .containsExactly(100L, 90L, 80L, 71L, 70L, 30L, 10L);
+    }
+
+    //push 와 pull 양쪽에 있는 게시물은 한번만, 중복은 limit 에 세지 않는다.
+    @Test
+    void deduplicatesAcrossSources() {
+        List<Cursor> pushed = List.of(key(5, 50), key(4, 40), key(2, 20));
+        List<Cursor> pulled = List.of(key(5, 50), key(4, 40), key(3, 30));
+
+        assertThat(ids(FeedMerger.merge(List.of(pushed, pulled), 3))).containsExactly(50L, 40L, 30L);
+    }
+
+    //limit 에서 끊은 마지막 키를 cursor 로 이어서 합치면 빠지거나 겹치는 게시물이 없다.
+    @Test
+    void continuesFromLastKeyWithoutGapsOrOverlap() {
+        List<Cursor> pushed = List.of(key(6, 60), key(4, 40), key(2, 20));
+        List<Cursor> pulled = List.of(key(6, 62), key(5, 50), key(4, 41), key(1, 10));
+
+        List<Cursor> firstPage = FeedMerger.merge(List.of(pushed, pulled), 3);
+        assertThat(ids(firstPage)).containsExactly(62L, 60L, 50L);
+
+        Cursor cursor = firstPage.get(firstPage.size() - 1);
+        List<Cursor> secondPage = FeedMerger.merge(List.of(after(pushed, cursor), after(pulled, cursor)), 3);
+        assertThat(ids(secondPage)).containsExactly(41L, 40L, 20L);
+
+        assertThat(FeedMerger.merge(List.of(), 3)).isEmpty();
+        assertThat(FeedMerger.merge(List.of(List.of(), pulled), 0)).isEmpty();
+    }
+
+    private static List<Cursor> after(List<Cursor> keys, Cursor cursor) {
+        return keys.stream().filter(key -> FeedMerger.NEWEST_FIRST.compare(key, cursor) > 0).toList();
+    }
+
+    private static List<Long> ids(List<Cursor> keys) {
+        return keys.stream().map(Cursor::id).toList();
+    }
+
+    private static Cursor key(int minutes, long id) {
+        return new Cursor(BASE.plusMinutes(minutes), id);
+    }
+}
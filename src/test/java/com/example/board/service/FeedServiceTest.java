@@ -0,0 +1,243 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.event.FollowDeletedEvent;
+import com.example.board.event.PostCreatedEvent;
+import com.example.board.model.entity.PostEntity;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.Post;
+import com.example.board.model.post.PostPostRequestBody;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.FollowEntityRepository;
+import com.example.board.repository.PostEntityRepository;
+import com.example.board.repository.TimelineEntityRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//팔로워 2명 이상이면 pull 대상, pending_fanout 은 테스트에서 직접 꺼낸다.
+@SpringBootTest(properties = {"board.feed.celebrity-threshold=2", "board.feed.celebrity-cache-ttl-millis=60000",
+        "board.feed.pending-retry-interval-millis=3600000"})
+class FeedServiceTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private PostEntityRepository postEntityRepository;
+    @Autowired
+    private FollowEntityRepository followEntityRepository;
+    @Autowired
+    private TimelineEntityRepository timelineEntityRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private FollowDeletedEvents followDeletedEvents;
+
+    //캐시된 pull 키의 게시물이 삭제돼도 페이지를 끝까지 채우고 다음 페이지가 이어진다.
+    @Test
+    void deletedPulledPostIsRefilled() {
+        UserPrincipal celebrity = UserPrincipal.from(testUsers.create());
+        UserPrincipal viewer = UserPrincipal.from(testUsers.create());
+        userService.follow(celebrity.username(), viewer);
+        userService.follow(celebrity.username(), UserPrincipal.from(testUsers.create()));
+        List<Post> posts = createPosts(celebrity, 5);
+
+        assertThat(postService.getFeed(null, 2, viewer).items()).extracting(Post::postId)
+                .containsExactly(posts.get(4).postId(), posts.get(3).postId()); //pull 키가 캐시된다.
+        postService.deletePost(posts.get(3).postId(), celebrity);
+
+        CursorPage<Post> firstPage = postService.getFeed(null, 2, viewer);
+        assertThat(firstPage.items()).extracting(Post::postId).containsExactly(posts.get(4).postId(), posts.get(2).postId());
+        assertThat(firstPage.next()).isNotNull();
+        CursorPage<Post> secondPage = postService.getFeed(firstPage.next(), 2, viewer);
+        assertThat(secondPage.items()).extracting(Post::postId).containsExactly(posts.get(1).postId(), posts.get(0).postId());
+        assertThat(secondPage.next()).isNull();
+    }
+
+    //팔로워가 줄어서 pull 대상에서 내려오면, push 되지 않았던 게시물을 남은 팔로워 타임라인에 채워 넣는다.
+    @Test
+    void droppingBelowThresholdBackfillsFollowers() throws InterruptedException {
+        UserPrincipal author = UserPrincipal.from(testUsers.create());
+        UserPrincipal viewer = UserPrincipal.from(testUsers.create());
+        UserPrincipal leaving = UserPrincipal.from(testUsers.create());
+        userService.follow(author.username(), viewer);
+        userService.follow(author.username(), leaving);
+        List<Post> posts = createPosts(author, 3); //pull 대상이라 viewer 타임라인에는 쓰지 않음
+
+        userService.unFollow(author.username(), leaving);
+
+        List<Long> expected = List.of(posts.get(2).postId(), posts.get(1).postId(), posts.get(0).postId());
+        List<Long> feed = List.of();
+        for (int i = 0; i < 100 && !feed.equals(expected); i++) { //backfill 은 feedFanoutExecutor 에서 비동기로 돈다.
+            Thread.sleep(50);
+            feed = postService.getFeed(null, 10, viewer).items().stream().map(Post::postId).toList();
+        }
+        assertThat(feed).isEqualTo(expected);
+    }
+
+    //동시에 언팔로우해도 팔로워 수가 겹치지 않아서 기준선을 넘는 언팔로우는 딱 하나다.
+    @Test
+    void concurrentUnfollowsCrossThresholdOnce() throws Exception {
+        UserPrincipal author = UserPrincipal.from(testUsers.create());
+        UserPrincipal viewer = UserPrincipal.from(testUsers.create());
+        userService.follow(author.username(), viewer);
+        List<UserPrincipal> leaving = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            leaving.add(UserPrincipal.from(testUsers.create()));
+            userService.follow(author.username(), leaving.get(i));
+        }
+        List<Post> posts = createPosts(author, 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(leaving.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (UserPrincipal follower : leaving) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return userService.unFollow(author.username(), follower);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<FollowDeletedEvent> events = followDeletedEvents.of(author.userId());
+        assertThat(events).extracting(FollowDeletedEvent::followingFollowersCount).containsExactlyInAnyOrder(3L, 2L, 1L);
+        assertThat(events).filteredOn(event -> event.droppedBelow(2)).hasSize(1);
+
+        List<Long> expected = List.of(posts.get(1).postId(), posts.get(0).postId());
+        List<Long> feed = List.of();
+        for (int i = 0; i < 100 && !feed.equals(expected); i++) {
+            Thread.sleep(50);
+            feed = postService.getFeed(null, 10, viewer).items().stream().map(Post::postId).toList();
+        }
+        assertThat(feed).isEqualTo(expected);
+    }
+
+    //pull 대상 작성자의 게시물은 팔로워 수와 상관없이 작성자 타임라인 한 줄만 쓴다.
+    @Test
+    void celebrityPostWritesOnlyAuthorTimelineRow() throws InterruptedException {
+        UserPrincipal celebrity = UserPrincipal.from(testUsers.create());
+        for (int i = 0; i < 5; i++) {
+            userService.follow(celebrity.username(), UserPrincipal.from(testUsers.create()));
+        }
+        UserPrincipal regular = UserPrincipal.from(testUsers.create());
+        userService.follow(regular.username(), UserPrincipal.from(testUsers.create()));
+
+        Post celebrityPost = postService.createPost(new PostPostRequestBody("celebrity"), celebrity);
+        Post regularPost = postService.createPost(new PostPostRequestBody("regular"), regular);
+
+        //fan-out 은 비동기라 일반 게시물이 작성자 + 팔로워 1명에게 다 쓰일때까지 기다린다.
+        for (int i = 0; i < 100 && (countTimelineRows(regularPost) < 2 || countTimelineRows(celebrityPost) < 1); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(countTimelineRows(regularPost)).isEqualTo(2);
+        assertThat(countTimelineRows(celebrityPost)).isEqualTo(1);
+    }
+
+    //스레드풀이 거절한 fan-out 은 호출한 스레드에서 돌리지 않고 pending_fanout 에 남겼다가, 다시 꺼내서 실행한다.
+    @Test
+    void rejectedFanoutIsPersistedAndRetried() {
+        UserEntity author = testUsers.create();
+        userService.follow(author.getUsername(), UserPrincipal.from(testUsers.create()));
+        PostEntity post = postEntityRepository.save(PostEntity.of("post", author)); //이벤트 없이 저장 (fan-out 은 아래에서 직접)
+        PostCreatedEvent event = new PostCreatedEvent(post.getPostId(), author.getUserId(), 1L, post.getCreatedDateTime());
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        feedService(new TaskExecutorAdapter(task -> {
+            throw new RejectedExecutionException("full");
+        }), meterRegistry).onPostCreated(event);
+
+        assertThat(countTimelineRows(post.getPostId())).isZero();
+        assertThat(countPendingRows(post.getPostId())).isEqualTo(1);
+        assertThat(meterRegistry.counter("board.feed.fanout.rejected", "kind", "post").count()).isEqualTo(1);
+
+        feedService(new TaskExecutorAdapter(Runnable::run), meterRegistry).retryPending();
+
+        assertThat(countTimelineRows(post.getPostId())).isEqualTo(2);
+        assertThat(countPendingRows(post.getPostId())).isZero();
+    }
+
+    private FeedService feedService(AsyncTaskExecutor executor, MeterRegistry meterRegistry) {
+        return new FeedService(timelineEntityRepository, followEntityRepository, postEntityRepository, jdbcTemplate,
+                executor, transactionManager, meterRegistry, 1000, 100, 2, 200, 60000);
+    }
+
+    private long countTimelineRows(Post post) {
+        return countTimelineRows(post.postId());
+    }
+
+    private long countTimelineRows(Long postId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM timeline WHERE postid = ?", Long.class, postId);
+    }
+
+    private long countPendingRows(Long postId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM pending_fanout WHERE postid = ?", Long.class, postId);
+    }
+
+    private List<Post> createPosts(UserPrincipal author, int count) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            posts.add(postService.createPost(new PostPostRequestBody("post " + i), author));
+        }
+        return posts;
+    }
+
+    //발행된 언팔로우 이벤트를 모은다. (발행은 요청 스레드마다 따로라서 스레드에 묶이지 않는 리스너로 받는다)
+    @TestConfiguration
+    static class FollowDeletedEventsConfiguration {
+
+        @Bean
+        FollowDeletedEvents followDeletedEvents() {
+            return new FollowDeletedEvents();
+        }
+    }
+
+    static class FollowDeletedEvents {
+
+        private final Queue<FollowDeletedEvent> events = new ConcurrentLinkedQueue<>();
+
+        @EventListener
+        void on(FollowDeletedEvent event) {
+            events.add(event);
+        }
+
+        List<FollowDeletedEvent> of(Long followingId) {
+            return events.stream().filter(event -> event.followingId().equals(followingId)).toList();
+        }
+    }
+}
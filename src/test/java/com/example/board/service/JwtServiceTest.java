@@ -0,0 +1,61 @@
+package com.example.board.service;
+
+import com.example.board.model.user.UserPrincipal;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//검증된 토큰 캐시가 만료된 토큰이나 변조된 토큰을 통과시키지 않는지 확인
+class JwtServiceTest {
+
+    private static final UserPrincipal PRINCIPAL = new UserPrincipal(7L, "alice");
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService jwtService = new JwtService(meterRegistry, 100, now::get);
+
+    @Test
+    void expiredTokenIsEvictedAndRejected() {
+        String token = jwtService.generateAccessToken(PRINCIPAL);
+        assertThat(jwtService.getPrincipal(token)).isEqualTo(PRINCIPAL);
+        assertThat(jwtService.getPrincipal(token)).isEqualTo(PRINCIPAL);
+        assertThat(cacheHits()).isEqualTo(1);
+        assertThat(jwtService.verifiedTokenCount()).isEqualTo(1);
+
+        now.addAndGet(Duration.ofHours(3).plusSeconds(1).toMillis());
+
+        assertThatThrownBy(() -> jwtService.getPrincipal(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(cacheHits()).isEqualTo(1);
+        assertThat(jwtService.verifiedTokenCount()).isZero();
+    }
+
+    @Test
+    void tamperedTokenMissesCache() {
+        String token = jwtService.generateAccessToken(PRINCIPAL);
+        assertThat(jwtService.getPrincipal(token)).isEqualTo(PRINCIPAL);
+
+        //서명은 그대로 두고 subject 만 바꾼다.
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("alice", "admin");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtService.getPrincipal(tampered)).isInstanceOf(JwtException.class);
+        assertThat(cacheHits()).isZero();
+        assertThat(jwtService.verifiedTokenCount()).isEqualTo(1);
+        assertThat(jwtService.getPrincipal(token)).isEqualTo(PRINCIPAL);
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.board.service;
+
+import com.example.board.cache.PostSnapshotCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LikeCountAggregatorTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final long POSTS = 8;
+
+    //여러 스레드가 좋아요/취소를 하는 동안 계속 flush 해도 DB 에 반영된 합계가 정확히 맞는지 확인
+    @Test
+    void flushedDeltasAreExactUnderConcurrentUpdates() throws Exception {
+        Map<Long, Long> flushed = new ConcurrentHashMap<>();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            batch.forEach(row -> flushed.merge((Long) row[1], (Long) row[0], Long::sum));
+            return new int[batch.size()];
+        });
+        LikeCountAggregator aggregator = aggregator(jdbcTemplate, mock(PlatformTransactionManager.class), mock(TaskScheduler.class), 5_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        executor.submit(() -> {
+            start.await();
+            while (running.get()) {
+                aggregator.flush();
+            }
+            return null;
+        });
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    long postId = i % POSTS;
+                    //세번에 한번은 좋아요 취소
+                    aggregator.add(postId, i % 3 == 2 ? -1 : 1);
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        Thread.sleep(100);
+        running.set(false);
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        aggregator.flushOnShutdown();
+
+        for (long postId = 0; postId < POSTS; postId++) {
+            assertThat(flushed.get(postId)).isEqualTo(expectedDelta(postId));
+            assertThat(aggregator.getPendingDelta(postId)).isZero();
+        }
+    }
+
+    //한도에 닿으면 좋아요 요청 스레드에서 flush 하지 않고 스케줄러에 한번만 맡긴다.
+    @Test
+    void reachingMaxPendingSchedulesOneFlush() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        TaskScheduler taskScheduler = mock(TaskScheduler.class);
+        LikeCountAggregator aggregator = aggregator(jdbcTemplate, mock(PlatformTransactionManager.class), taskScheduler, 3);
+
+        for (int i = 0; i < 5; i++) {
+            aggregator.add(1L, 1);
+        }
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+        verifyNoInteractions(jdbcTemplate);
+
+        aggregator.flush();
+        for (int i = 0; i < 3; i++) {
+            aggregator.add(1L, 1);
+        }
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    //UPDATE 가 실패하면 롤백되므로 delta 를 다시 넣어서 재시도한다.
+    @Test
+    void failedUpdateIsRetried() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db down"));
+        LikeCountAggregator aggregator = aggregator(jdbcTemplate, mock(PlatformTransactionManager.class), mock(TaskScheduler.class), 100);
+
+        aggregator.add(1L, 2);
+        aggregator.flush();
+
+        assertThat(aggregator.getPendingDelta(1L)).isEqualTo(2);
+    }
+
+    //COMMIT 에서 실패하면 반영됐는지 알 수 없어서 두번 더하지 않도록 재시도하지 않는다.
+    @Test
+    void failedCommitIsNotRetried() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        doThrow(new TransactionSystemException("connection lost")).when(transactionManager).commit(any());
+        LikeCountAggregator aggregator = aggregator(mock(JdbcTemplate.class), transactionManager, mock(TaskScheduler.class), 100);
+
+        aggregator.add(1L, 2);
+        aggregator.flush();
+
+        assertThat(aggregator.getPendingDelta(1L)).isZero();
+    }
+
+    private LikeCountAggregator aggregator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           TaskScheduler taskScheduler, long maxPendingOperations) {
+        return new LikeCountAggregator(jdbcTemplate, new TransactionTemplate(transactionManager), taskScheduler,
+                mock(PostSnapshotCache.class), maxPendingOperations);
+    }
+
+    private long expectedDelta(long postId) {
+        long delta = 0;
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            if (i % POSTS == postId) {
+                delta += i % 3 == 2 ? -1 : 1;
+            }
+        }
+        return delta * THREADS;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.board.service;
+
+import com.example.board.exception.user.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashServiceTest {
+
+    //스레드 1개 + 큐 1칸이 다 차 있으면 기다리지 않고 바로 거절되는지 확인
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHashService passwordHashService = new PasswordHashService(new BCryptPasswordEncoder(4), executor, meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Boolean> running = executor.submit(() -> release.await(10, TimeUnit.SECONDS)); //실행 중
+        Future<Boolean> queued = executor.submit(() -> release.await(10, TimeUnit.SECONDS)); //큐 대기
+        try {
+
+            assertThatThrownBy(() -> passwordHashService.encode("password"))
+                    .isInstanceOf(PasswordHashingUnavailableException.class);
+            assertThat(meterRegistry.get("board.password.hash.rejected").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("board.password.hash.queue.depth").gauge().value()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+        running.get();
+        queued.get();
+
+        String encoded = passwordHashService.encode("password");
+        assertThat(passwordHashService.matches("password", encoded)).isTrue();
+        executor.shutdown();
+    }
+
+    //cost 를 올리면 예전 cost 의 해시는 다시 저장 대상
+    @Test
+    void detectsOutdatedCost() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.initialize();
+        PasswordHashService passwordHashService = new PasswordHashService(new BCryptPasswordEncoder(5), executor, new SimpleMeterRegistry());
+
+        assertThat(passwordHashService.needsRehash(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(passwordHashService.needsRehash(passwordHashService.encode("password"))).isFalse();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.exception.imports.InvalidImportLineException;
+import com.example.board.exception.user.UserNotAllowedException;
+import com.example.board.model.entity.PostEntity;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.imports.ImportResult;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.PostEntityRepository;
+import com.example.board.repository.UserEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//대량 가져오기: 청크 단위 배치 INSERT 결과와 시퀀스 id 가 JPA 저장과 겹치지 않는지 확인 (처리량(rows/s)은 로그로 남는다)
+@SpringBootTest(properties = {"board.admin.usernames=importer", "board.import.chunk-size=500"})
+class PostImportServiceTest {
+
+    private static final int POSTS = 3000;
+    private static final int REPLIES_PER_POST = 2;
+
+    @Autowired
+    private PostImportService postImportService;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private UserEntityRepository userEntityRepository;
+    @Autowired
+    private PostEntityRepository postEntityRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsPostsAndRepliesInChunks() throws Exception {
+        UserEntity admin = findOrCreateAdmin();
+        UserEntity author = testUsers.create();
+        UserEntity replier = testUsers.create();
+
+        //JPA 로 먼저 저장해서 Hibernate 가 받아 둔 id 블록과 섞이게 한다.
+        PostEntity before = postEntityRepository.save(PostEntity.of("before import", author));
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < POSTS; i++) {
+            ndjson.append("{\"username\":\"").append(author.getUsername()).append("\",\"body\":\"post ").append(i)
+                    .append("\",\"createdDateTime\":\"2015-03-01T10:00:00Z\",\"replies\":[");
+            for (int r = 0; r < REPLIES_PER_POST; r++) {
+                if (r > 0) ndjson.append(',');
+                ndjson.append("{\"username\":\"").append(replier.getUsername()).append("\",\"body\":\"reply ").append(r).append("\"}");
+            }
+            ndjson.append("]}\n");
+        }
+        //작성자가 없는 줄은 건너뛴다.
+        ndjson.append("{\"username\":\"nobody-").append(UUID.randomUUID()).append("\",\"body\":\"x\"}\n");
+
+        ImportResult result = postImportService.importPosts(stream(ndjson.toString()), UserPrincipal.from(admin));
+
+        PostEntity after = postEntityRepository.save(PostEntity.of("after import", author));
+
+        assertThat(result.postsImported()).isEqualTo(POSTS);
+        assertThat(result.repliesImported()).isEqualTo((long) POSTS * REPLIES_PER_POST);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.chunks()).isGreaterThan(1);
+        assertThat(result.rowsPerSecond()).isPositive();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM post WHERE userid = ?", Long.class, author.getUserId()))
+                .isEqualTo(POSTS + 2L);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM reply WHERE userid = ?", Long.class, replier.getUserId()))
+                .isEqualTo((long) POSTS * REPLIES_PER_POST);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(repliescount) FROM post WHERE userid = ?", Long.class, author.getUserId()))
+                .isEqualTo((long) POSTS * REPLIES_PER_POST);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT postid) FROM post WHERE userid = ?", Long.class, author.getUserId()))
+                .isEqualTo(POSTS + 2L);
+        assertThat(after.getPostId()).isNotEqualTo(before.getPostId());
+    }
+
+    @Test
+    void rejectsNonAdminAndMalformedLines() {
+        UserEntity admin = findOrCreateAdmin();
+        UserEntity user = testUsers.create();
+
+        assertThatThrownBy(() -> postImportService.importPosts(stream("{}"), UserPrincipal.from(user)))
+                .isInstanceOf(UserNotAllowedException.class);
+        assertThatThrownBy(() -> postImportService.importPosts(stream("{\"username\":\"a\",\"body\":\"b\"}\n{not json\n"), UserPrincipal.from(admin)))
+                .isInstanceOf(InvalidImportLineException.class);
+    }
+
+    private UserEntity findOrCreateAdmin() {
+        return userEntityRepository.findByUsername("importer")
+                .orElseGet(() -> userEntityRepository.save(UserEntity.of("importer", "password")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
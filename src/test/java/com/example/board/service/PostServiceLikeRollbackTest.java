@@ -0,0 +1,55 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.model.entity.PostEntity;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.PostEntityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//좋아요 트랜잭션이 롤백되면 좋아요 수 delta 도 남지 않는지 확인
+@SpringBootTest
+class PostServiceLikeRollbackTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private LikeCountAggregator likeCountAggregator;
+    @Autowired
+    private PostEntityRepository postEntityRepository;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rolledBackLikeDoesNotChangeLikeCount() {
+        UserEntity viewer = testUsers.create();
+        PostEntity post = postEntityRepository.save(PostEntity.of("post", testUsers.create()));
+        UserPrincipal principal = UserPrincipal.from(viewer);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            postService.like(post.getPostId(), principal);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            postService.toggleLike(post.getPostId(), principal);
+            status.setRollbackOnly();
+        });
+
+        assertThat(likeCountAggregator.getPendingDelta(post.getPostId())).isZero();
+        likeCountAggregator.flush();
+        assertThat(postService.getPostByPostId(post.getPostId(), principal).likesCount()).isZero();
+        assertThat(postService.getPostByPostId(post.getPostId(), principal).isLiking()).isFalse();
+
+        //커밋된 좋아요는 그대로 반영된다.
+        assertThat(postService.toggleLike(post.getPostId(), principal).likesCount()).isEqualTo(1);
+        likeCountAggregator.flush();
+        assertThat(postEntityRepository.findById(post.getPostId()).orElseThrow().getLikeCount()).isEqualTo(1);
+    }
+}
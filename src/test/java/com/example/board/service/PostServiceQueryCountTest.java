@@ -0,0 +1,130 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.model.entity.PostEntity;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.post.Post;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.repository.PostEntityRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//목록 조회 쿼리 수가 게시물 개수에 따라 늘어나지 않는지 확인하는 테스트
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PostServiceQueryCountTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private PostEntityRepository postEntityRepository;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getPostByUsernameRunsConstantNumberOfStatements() {
+        UserEntity author = testUsers.create();
+        UserEntity viewer = testUsers.create();
+
+        createPosts(author, viewer, 3);
+        long smallListStatements = countStatements(() -> postService.getPostByUsername(author.getUsername(), null, 100, UserPrincipal.from(viewer)).items());
+
+        createPosts(author, viewer, 30);
+        List<Post> posts = transactionTemplate.execute(status -> postService.getPostByUsername(author.getUsername(), null, 100, UserPrincipal.from(viewer)).items());
+        long largeListStatements = countStatements(() -> postService.getPostByUsername(author.getUsername(), null, 100, UserPrincipal.from(viewer)).items());
+
+        assertThat(posts).hasSize(33);
+        assertThat(posts).filteredOn(Post::isLiking).hasSize(17);
+        assertThat(largeListStatements).isEqualTo(smallListStatements);
+    }
+
+    //게시물마다 작성자가 달라도 작성자를 게시물과 같은 쿼리로 가져오는지 (N+1 이 아닌지)
+    @Test
+    void getPostsFetchesAuthorsInSameQuery() {
+        UserEntity viewer = testUsers.create();
+        for (int i = 0; i < 40; i++) {
+            createPosts(testUsers.create(), viewer, 1);
+        }
+
+        long smallPageStatements = countStatements(() -> postService.getPosts(null, 5, UserPrincipal.from(viewer)).items());
+        long largePageStatements = countStatements(() -> postService.getPosts(null, 40, UserPrincipal.from(viewer)).items());
+        PostEntity post = postEntityRepository.save(PostEntity.of("single", testUsers.create()));
+        long singlePostStatements = transactionTemplate.execute(status -> {
+            statistics.clear();
+            postService.getPostByPostId(post.getPostId(), UserPrincipal.from(viewer)).user().username();
+            return statistics.getPrepareStatementCount();
+        });
+
+        assertThat(largePageStatements).isEqualTo(smallPageStatements);
+        assertThat(singlePostStatements).isEqualTo(1);
+    }
+
+    @Test
+    void getPostByUsernamePagesThroughAllPostsWithCursor() {
+        UserEntity author = testUsers.create();
+        UserEntity viewer = testUsers.create();
+        createPosts(author, viewer, 25);
+
+        List<Long> postIds = new ArrayList<>();
+        String next = null;
+        long firstPageStatements = -1;
+        do {
+            String cursor = next;
+            long before = statistics.getPrepareStatementCount();
+            CursorPage<Post> page = transactionTemplate.execute(
+                    status -> postService.getPostByUsername(author.getUsername(), cursor, 10, UserPrincipal.from(viewer)));
+            long statements = statistics.getPrepareStatementCount() - before;
+            if (firstPageStatements < 0) {
+                firstPageStatements = statements;
+            }
+            assertThat(statements).isEqualTo(firstPageStatements);
+            page.items().forEach(post -> postIds.add(post.postId()));
+            next = page.next();
+        } while (next != null);
+
+        assertThat(postIds).hasSize(25).doesNotHaveDuplicates();
+        assertThat(postIds).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    private long countStatements(Supplier<List<Post>> action) {
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            action.get();
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    //짝수번째 게시물에만 좋아요를 누른다. (좋아요 인덱스에도 반영되도록 서비스로)
+    private void createPosts(UserEntity author, UserEntity liker, int count) {
+        for (int i = 0; i < count; i++) {
+            PostEntity post = postEntityRepository.save(PostEntity.of("body " + i, author));
+            if (i % 2 == 0) {
+                postService.like(post.getPostId(), UserPrincipal.from(liker));
+            }
+        }
+    }
+}
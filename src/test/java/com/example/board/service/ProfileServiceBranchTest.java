@@ -0,0 +1,118 @@
+package com.example.board.service;
+
+import com.example.board.model.pagination.CursorPage;
+import com.example.board.model.user.User;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.model.user.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+//느리거나 실패하거나 거절된 부분만 unavailable 로 빠지고, 나머지는 채워지며, 느린 조회를 끝까지 기다리지 않는지 확인
+//결과는 부분별 outcome 메트릭으로 확인한다. 응답 시간은 느린 조회(5초)보다 확실히 짧은지만 본다. (CI 에서 흔들리지 않게)
+class ProfileServiceBranchTest {
+
+    private static final long BRANCH_TIMEOUT_MILLIS = 200;
+    private static final long SLOW_QUERY_MILLIS = 5_000;
+    private static final UserPrincipal VIEWER = new UserPrincipal(2L, "viewer");
+
+    private final UserService userService = mock(UserService.class);
+    private final PostService postService = mock(PostService.class);
+    private final ReplyService replyService = mock(ReplyService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void slowAndFailingBranchesAreUnavailable() {
+        ProfileService profileService = profileService(8, 10);
+        when(replyService.getLatestRepliesByUserId(eq(1L), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(SLOW_QUERY_MILLIS);
+            return List.of();
+        });
+        when(userService.getFollowingPreview(eq(1L), anyInt(), any())).thenThrow(new IllegalStateException("boom"));
+
+        long startedAt = System.nanoTime();
+        UserProfile profile = profileService.getProfile("target", VIEWER);
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertThat(profile.unavailable()).containsExactly("followings", "replies");
+        assertThat(profile.posts().items()).isEmpty();
+        assertThat(profile.followers()).isEmpty();
+        assertThat(profile.followings()).isNull();
+        assertThat(profile.replies()).isNull();
+        assertThat(outcomeCount("posts", "success")).isEqualTo(1);
+        assertThat(outcomeCount("followers", "success")).isEqualTo(1);
+        assertThat(outcomeCount("followings", "error")).isEqualTo(1);
+        assertThat(outcomeCount("replies", "timeout")).isEqualTo(1);
+        assertThat(elapsedMillis).isLessThan(SLOW_QUERY_MILLIS / 2);
+    }
+
+    //스레드풀이 가득 차면 요청 스레드에서 실행하지 않고 바로 거절된다. (응답 시간이 조회 시간의 합이 되지 않음)
+    @Test
+    void rejectedBranchesDoNotRunOnCallerThread() {
+        ProfileService profileService = profileService(1, 0);
+        when(postService.getPostsByUserId(eq(1L), isNull(), isNull(), any())).thenAnswer(invocation -> {
+            Thread.sleep(SLOW_QUERY_MILLIS);
+            return new CursorPage<>(List.of(), null);
+        });
+
+        long startedAt = System.nanoTime();
+        UserProfile profile = profileService.getProfile("target", VIEWER);
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertThat(profile.unavailable()).containsExactly("posts", "followers", "followings", "replies");
+        assertThat(outcomeCount("posts", "timeout")).isEqualTo(1);
+        for (String branch : List.of("followers", "followings", "replies")) {
+            assertThat(outcomeCount(branch, "rejected")).isEqualTo(1);
+        }
+        assertThat(elapsedMillis).isLessThan(SLOW_QUERY_MILLIS / 2);
+    }
+
+    private long outcomeCount(String branch, String outcome) {
+        return meterRegistry.timer("board.profile.branch", "branch", branch, "outcome", outcome).count();
+    }
+
+    private ProfileService profileService(int poolSize, int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userService.getUser("target", VIEWER)).thenReturn(user());
+        when(postService.getPostsByUserId(eq(1L), isNull(), isNull(), any())).thenReturn(new CursorPage<>(List.of(), null));
+        when(userService.getFollowerPreview(anyLong(), anyInt(), any())).thenReturn(List.of());
+        when(userService.getFollowingPreview(anyLong(), anyInt(), any())).thenReturn(List.of());
+        when(replyService.getLatestRepliesByUserId(anyLong(), anyInt())).thenReturn(List.of());
+        return new ProfileService(userService, postService, replyService, executor, transactionTemplate,
+                mock(JdbcTemplate.class), meterRegistry, BRANCH_TIMEOUT_MILLIS, 5);
+    }
+
+    private static User user() {
+        return new User(1L, "target", null, null, 0L, 0L, null, null, false);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.post.Post;
+import com.example.board.model.post.PostPostRequestBody;
+import com.example.board.model.reply.ReplyRequestBody;
+import com.example.board.model.reply.ReplyView;
+import com.example.board.model.user.UserPrincipal;
+import com.example.board.model.user.UserProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//프로필 조회가 네 부분을 모두 채우고, 미리보기는 preview-size 개로 잘리는지 확인
+@SpringBootTest(properties = {"board.profile.preview-size=3", "board.profile.branch-timeout-millis=5000"})
+class ProfileServiceTest {
+
+    @Autowired
+    private ProfileService profileService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private ReplyService replyService;
+    @Autowired
+    private TestUsers testUsers;
+
+    @Test
+    void profileCombinesAllBranches() {
+        UserEntity viewer = testUsers.create();
+        UserEntity target = testUsers.create();
+        UserPrincipal targetPrincipal = UserPrincipal.from(target);
+
+        for (int i = 0; i < 5; i++) {
+            userService.follow(target.getUsername(), UserPrincipal.from(testUsers.create()));
+        }
+        userService.follow(viewer.getUsername(), targetPrincipal);
+        Post post = null;
+        for (int i = 0; i < 4; i++) {
+            post = postService.createPost(new PostPostRequestBody("post " + i), targetPrincipal);
+        }
+        for (int i = 0; i < 4; i++) {
+            replyService.createReply(post.postId(), new ReplyRequestBody("reply " + i), targetPrincipal);
+        }
+
+        UserProfile profile = profileService.getProfile(target.getUsername(), UserPrincipal.from(viewer));
+
+        assertThat(profile.unavailable()).isNull();
+        assertThat(profile.user().userId()).isEqualTo(target.getUserId());
+        assertThat(profile.posts().items()).hasSize(4);
+        assertThat(profile.followers()).hasSize(3);
+        assertThat(profile.followings()).hasSize(1);
+        assertThat(profile.followings().get(0).userId()).isEqualTo(viewer.getUserId());
+        //최근 댓글 먼저
+        assertThat(profile.replies()).extracting(ReplyView::body).containsExactly("reply 3", "reply 2", "reply 1");
+
+        //삭제된 게시물의 댓글은 최근 댓글에서 빠진다.
+        postService.deletePost(post.postId(), targetPrincipal);
+        UserProfile afterDelete = profileService.getProfile(target.getUsername(), UserPrincipal.from(viewer));
+        assertThat(afterDelete.unavailable()).isNull();
+        assertThat(afterDelete.posts().items()).hasSize(3);
+        assertThat(afterDelete.replies()).isEmpty();
+    }
+}
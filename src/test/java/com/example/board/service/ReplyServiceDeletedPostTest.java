@@ -0,0 +1,41 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.exception.post.PostNotFoundException;
+import com.example.board.model.post.Post;
+import com.example.board.model.post.PostPostRequestBody;
+import com.example.board.model.reply.ReplyRequestBody;
+import com.example.board.model.user.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//삭제된 게시물의 댓글 목록은 댓글이 남아 있어도 404 (PostNotFoundException)
+@SpringBootTest
+class ReplyServiceDeletedPostTest {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private ReplyService replyService;
+    @Autowired
+    private TestUsers testUsers;
+
+    @Test
+    void repliesOfDeletedPostAreNotFound() {
+        UserPrincipal author = UserPrincipal.from(testUsers.create());
+        Post post = postService.createPost(new PostPostRequestBody("post"), author);
+        for (int i = 0; i < 3; i++) {
+            replyService.createReply(post.postId(), new ReplyRequestBody("reply " + i), author);
+        }
+        assertThat(replyService.getRepliesByPostId(post.postId(), null, null).items()).hasSize(3);
+
+        postService.deletePost(post.postId(), author);
+
+        assertThatThrownBy(() -> replyService.getRepliesByPostId(post.postId(), null, null))
+                .isInstanceOf(PostNotFoundException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.Follower;
+import com.example.board.model.user.User;
+import com.example.board.model.user.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//팔로우 여부를 FollowGraphIndex 로 채우기 때문에 목록 크기와 상관없이 쿼리 수가 같은지 확인
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserServiceFollowStatusTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TestUsers testUsers;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void followStatusComesFromIndex() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        UserEntity viewer = testUsers.create();
+        UserEntity target = testUsers.create();
+
+        //target 을 팔로우하는 유저 20명, viewer 는 그중 짝수번째를 팔로우한다.
+        List<UserEntity> followers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UserEntity follower = testUsers.create();
+            userService.follow(target.getUsername(), UserPrincipal.from(follower));
+            followers.add(follower);
+        }
+        for (int i = 0; i < followers.size(); i += 2) {
+            userService.follow(followers.get(i).getUsername(), UserPrincipal.from(viewer));
+        }
+
+        statistics.clear();
+        List<Follower> followerViews = userService.getFollowersByUsername(target.getUsername(), UserPrincipal.from(viewer));
+        //userId 조회 1번 + 목록 1번
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(followerViews).hasSize(20);
+        assertThat(followerViews).filteredOn(Follower::isFollwing).hasSize(10);
+
+        userService.unFollow(followers.get(0).getUsername(), UserPrincipal.from(viewer));
+        User unfollowed = userService.getUser(followers.get(0).getUsername(), UserPrincipal.from(viewer));
+        assertThat(unfollowed.isFollwing()).isFalse();
+        assertThat(userService.getFollowingsByUser(viewer.getUsername(), UserPrincipal.from(viewer)))
+                .hasSize(9)
+                .allMatch(User::isFollwing);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.board.service;
+
+import com.example.board.TestUsers;
+import com.example.board.index.UserSearchIndex;
+import com.example.board.model.entity.UserEntity;
+import com.example.board.model.user.User;
+import com.example.board.model.user.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+//UserSearchIndex 를 다 만들기 전(isReady() == false)에는 검색을 DB(LIKE)로 하는지 확인
+@SpringBootTest
+class UserServiceSearchFallbackTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TestUsers testUsers;
+    @MockitoBean
+    private UserSearchIndex userSearchIndex;
+
+    @Test
+    void searchesDatabaseUntilIndexIsReady() {
+        UserEntity viewer = testUsers.create();
+        UserEntity target = testUsers.create();
+        String query = target.getUsername().substring("user-".length()).toUpperCase();
+
+        assertThat(userService.getUsers(query, 10, UserPrincipal.from(viewer)))
+                .extracting(User::userId)
+                .containsExactly(target.getUserId());
+        verify(userSearchIndex, never()).search(anyString(), anyInt());
+    }
+}